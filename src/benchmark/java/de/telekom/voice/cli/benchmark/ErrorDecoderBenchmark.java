@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.benchmark;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.connector.feign.CustomErrorDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of error responses, which becomes the hot path once the servers are overloaded and answer
+ * most invocations with an error.
+ * <p>
+ * Covers the three kinds of bodies the decoder distinguishes: an error result, a failed invoke result and a body
+ * which isn't JSON at all, like the HTML page of a proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ErrorDecoderBenchmark {
+    private static final String ERROR_RESULT = "{\"error\":{\"code\":\"SVH-TOO-MANY-REQUESTS\",\"message\":\"Too many requests, please try again later\"}}";
+    private static final String INVOKE_RESULT = "{\"text\":\"Das habe ich nicht verstanden\","
+            + "\"stt\":{\"text\":\"wie ist das wetter\",\"confidence\":0.87},"
+            + "\"intent\":{\"intent\":\"WEATHER__CURRENT\",\"entities\":{\"location\":[\"Darmstadt\"]}},"
+            + "\"skill\":{\"name\":\"weather\",\"data\":{\"type\":\"ERROR\"}},"
+            + "\"session\":{\"id\":\"benchmark\",\"finished\":true},\"status\":\"ERROR\"}";
+    private static final String HTML = "<html><head><title>503 Service Temporarily Unavailable</title></head>"
+            + "<body><center><h1>503 Service Temporarily Unavailable</h1></center></body></html>";
+
+    public enum Body {
+        ERROR_RESULT, INVOKE_RESULT, HTML
+    }
+
+    @Param({"ERROR_RESULT", "INVOKE_RESULT", "HTML"})
+    public Body body;
+
+    private CustomErrorDecoder decoder;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        decoder = new CustomErrorDecoder(new CodecRegistry());
+        String json;
+        switch (body) {
+            case ERROR_RESULT:
+                json = ERROR_RESULT;
+                break;
+            case INVOKE_RESULT:
+                json = INVOKE_RESULT;
+                break;
+            default:
+                json = HTML;
+        }
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ApiException decode() throws IOException {
+        return decoder.decode(503, "benchmark", new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,215 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.benchmark;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.ApacheTransport;
+import de.telekom.voice.cli.connector.ConnectionPoolSettings;
+import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.InvocationProfile;
+import de.telekom.voice.cli.connector.OkHttpTransport;
+import de.telekom.voice.cli.connector.TextInvokeClient;
+import de.telekom.voice.cli.connector.Transport;
+import de.telekom.voice.cli.connector.TransportType;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.environment.Environment;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Measures the memory allocated per text invocation of a load run on the invoking thread and fails if it exceeds the
+ * budget of the transport. At high rates, the garbage collection pauses caused by the client show up as tail latency
+ * of the server in the results.
+ * <p>
+ * The invocations go against a local stub, which answers every request with the same result in a single write. The
+ * stub only speaks HTTP/1.1, so the HTTP/2 transport is measured with HTTP/1.1 as well.
+ */
+public class InvokeAllocationBudget {
+    private static final int WARMUP_INVOCATIONS = 10_000;
+    private static final int MEASURED_INVOCATIONS = 20_000;
+    private static final Map<TransportType, Long> BUDGET_BYTES = new EnumMap<>(TransportType.class);
+    private static final String RESULT = "{\"text\":\"Das Wetter in Darmstadt ist sonnig\","
+            + "\"stt\":{\"text\":\"wie ist das wetter\"},"
+            + "\"intent\":{\"intent\":\"WEATHER__CURRENT\",\"entities\":{\"location\":[\"Darmstadt\"]}},"
+            + "\"skill\":{\"name\":\"weather\",\"data\":{\"type\":\"TEXT\",\"text\":\"Sonnig\"}},"
+            + "\"session\":{\"id\":\"benchmark\",\"finished\":false},\"status\":\"OK\"}";
+
+    static {
+        BUDGET_BYTES.put(TransportType.HTTP1, 16L * 1024);
+        BUDGET_BYTES.put(TransportType.HTTP2, 24L * 1024);
+    }
+
+    public static void main(String[] args) throws IOException, ApiException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("The JVM doesn't measure allocated memory per thread");
+        }
+
+        boolean exceeded = false;
+        try (StubServer server = new StubServer(RESULT)) {
+            String baseUrl = "http://127.0.0.1:" + server.getPort();
+            for (Map.Entry<TransportType, Long> budget : BUDGET_BYTES.entrySet()) {
+                ConnectionPoolSettings settings = ConnectionPoolSettings.DEFAULT;
+                Transport transport = budget.getKey() == TransportType.HTTP2 ? OkHttpTransport.create(settings) : ApacheTransport.create(settings);
+                Connector connector = new Connector(new Environment.BaseURLs(baseUrl, baseUrl), "benchmark", new CodecRegistry(), transport, settings);
+                TextInvokeClient client = connector.getTextInvokeClient();
+                InvocationProfile profile = new InvocationProfile("token", "{}", null);
+                STTRequestDto request = new STTRequestDto("Wie ist das Wetter");
+
+                invoke(client, profile, request, WARMUP_INVOCATIONS);
+                long threadId = Thread.currentThread().getId();
+                long before = threads.getThreadAllocatedBytes(threadId);
+                invoke(client, profile, request, MEASURED_INVOCATIONS);
+                long perInvocation = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_INVOCATIONS;
+
+                boolean withinBudget = perInvocation <= budget.getValue();
+                exceeded |= !withinBudget;
+                System.out.printf("%s: %d bytes per invocation, budget %d bytes%s%n",
+                        budget.getKey(), perInvocation, budget.getValue(), withinBudget ? "" : " EXCEEDED");
+            }
+        }
+        System.exit(exceeded ? 1 : 0);
+    }
+
+    private static void invoke(TextInvokeClient client, InvocationProfile profile, STTRequestDto request, int invocations) throws ApiException {
+        for (int i = 0; i < invocations; i++) {
+            client.textJsonProjected(profile, true, true, "benchmark", request);
+        }
+    }
+
+    /**
+     * Answers every request on every connection with the same response. Unlike MockWebServer, which writes the
+     * headers and the body separately, the response goes out in one write, so requests don't wait for delayed
+     * acknowledgements.
+     */
+    private static class StubServer implements Closeable {
+        private final ServerSocket serverSocket;
+        private final byte[] response;
+
+        StubServer(String body) throws IOException {
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + content.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            response = new byte[head.length + content.length];
+            System.arraycopy(head, 0, response, 0, head.length);
+            System.arraycopy(content, 0, response, head.length, content.length);
+
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            startDaemon(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        startDaemon(() -> serve(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                s.setTcpNoDelay(true);
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                while (skipRequest(in)) {
+                    out.write(response);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Connection closed by the client
+            }
+        }
+
+        /**
+         * @return False if the connection was closed.
+         */
+        private static boolean skipRequest(InputStream in) throws IOException {
+            long contentLength = 0;
+            StringBuilder line = new StringBuilder();
+            boolean headers = false;
+            while (true) {
+                int c = in.read();
+                if (c < 0) {
+                    return false;
+                }
+                if (c != '\n') {
+                    line.append((char) c);
+                    continue;
+                }
+
+                String header = line.toString().trim();
+                line.setLength(0);
+                if (header.isEmpty()) {
+                    if (headers) {
+                        break;
+                    }
+                    continue;
+                }
+                headers = true;
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Long.parseLong(header.substring(15).trim());
+                }
+            }
+            while (contentLength > 0) {
+                long skipped = in.skip(contentLength);
+                if (skipped <= 0) {
+                    return false;
+                }
+                contentLength -= skipped;
+            }
+            return true;
+        }
+
+        private static void startDaemon(Runnable runnable) {
+            Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.benchmark;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.ApacheTransport;
+import de.telekom.voice.cli.connector.ConnectionPoolSettings;
+import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.OkHttpTransport;
+import de.telekom.voice.cli.connector.Transport;
+import de.telekom.voice.cli.connector.TransportType;
+import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.environment.Environment;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the throughput of the HTTP/1.1 and the HTTP/2 transport with many concurrent text invocations against a
+ * local stub, which answers every request after a fixed delay.
+ * <p>
+ * The stub speaks cleartext HTTP/2 with prior knowledge, so the numbers don't include TLS handshakes, which the
+ * HTTP/1.1 transport needs once per connection against the real servers. The number of connections each transport
+ * opened is printed after every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class TransportBenchmark {
+    private static final long SERVER_DELAY_MILLIS = 20;
+    // Keeps the logger configured, it logs every request otherwise
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+    private static final String RESULT = "{\"text\":\"Das Wetter\",\"session\":{\"id\":\"benchmark\",\"finished\":true}}";
+
+    @Param({"HTTP1", "HTTP2"})
+    public TransportType transportType;
+
+    private MockWebServer server;
+    private Connector connector;
+
+    @Setup
+    public void setUp() throws IOException {
+        SERVER_LOGGER.setLevel(Level.WARNING);
+        List<Protocol> protocols = Collections.singletonList(transportType == TransportType.HTTP2 ? Protocol.H2_PRIOR_KNOWLEDGE : Protocol.HTTP_1_1);
+        server = new MockWebServer();
+        server.setProtocols(protocols);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(RESULT)
+                        .setHeadersDelay(SERVER_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        ConnectionPoolSettings settings = ConnectionPoolSettings.DEFAULT;
+        Transport transport = transportType == TransportType.HTTP2
+                ? new OkHttpTransport(OkHttpTransport.newClientBuilder(settings).protocols(protocols).build())
+                : ApacheTransport.create(settings);
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        connector = new Connector(new Environment.BaseURLs(baseUrl, baseUrl), "benchmark", new CodecRegistry(), transport, settings);
+    }
+
+    @Benchmark
+    public InvokeResultDto invokeText() throws ApiException {
+        return connector.getInvokeAPI().textJson("token", "{}", null, true, true, null, new STTRequestDto("Wie ist das Wetter"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        // Requests with sequence number 0 are the first ones on their connection
+        int connections = 0;
+        RecordedRequest request;
+        while ((request = server.takeRequest(0, TimeUnit.MILLISECONDS)) != null) {
+            if (request.getSequenceNumber() == 0) {
+                connections++;
+            }
+        }
+        System.out.printf("%n%s: %d requests over %d connections%n", transportType, server.getRequestCount(), connections);
+        server.shutdown();
+    }
+}
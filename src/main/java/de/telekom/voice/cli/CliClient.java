@@ -26,8 +26,8 @@
 
 package de.telekom.voice.cli;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import de.telekom.voice.cli.base.ObjectMapperFactory;
+import de.telekom.voice.cli.audio.AudioCache;
+import de.telekom.voice.cli.base.CodecRegistry;
 import de.telekom.voice.cli.cli.Console;
 import de.telekom.voice.cli.cli.UserInterruptedException;
 import de.telekom.voice.cli.command.Command;
@@ -36,17 +36,24 @@ import de.telekom.voice.cli.command.helper.ArgumentHelper;
 import de.telekom.voice.cli.command.helper.ContextOptionsHelper;
 import de.telekom.voice.cli.command.helper.ExceptionHelper;
 import de.telekom.voice.cli.command.helper.FileHelper;
+import de.telekom.voice.cli.command.helper.LoadReportHelper;
 import de.telekom.voice.cli.command.helper.MetadataHelper;
 import de.telekom.voice.cli.command.helper.SessionHelper;
 import de.telekom.voice.cli.command.helper.SkillResultHelper;
+import de.telekom.voice.cli.command.impl.AudioCacheCommand;
 import de.telekom.voice.cli.command.impl.HelpCommand;
 import de.telekom.voice.cli.command.impl.InvokeAudioCommand;
+import de.telekom.voice.cli.command.impl.InvokeAudioCorpusCommand;
 import de.telekom.voice.cli.command.impl.InvokeIntentCommand;
 import de.telekom.voice.cli.command.impl.InvokeTextCommand;
+import de.telekom.voice.cli.command.impl.LatencyCommand;
 import de.telekom.voice.cli.command.impl.ListHistoryEntriesCommand;
 import de.telekom.voice.cli.command.impl.ListTokensCommand;
+import de.telekom.voice.cli.command.impl.LoadTextCommand;
+import de.telekom.voice.cli.command.impl.LoadTextRateCommand;
 import de.telekom.voice.cli.command.impl.LoginIdmCommand;
 import de.telekom.voice.cli.command.impl.NicknameCommand;
+import de.telekom.voice.cli.command.impl.PoolStatsCommand;
 import de.telekom.voice.cli.command.impl.PrintPasswordsCommand;
 import de.telekom.voice.cli.command.impl.PutTokenCommand;
 import de.telekom.voice.cli.command.impl.QuitCommand;
@@ -54,18 +61,25 @@ import de.telekom.voice.cli.command.impl.SetAccessTokenCommand;
 import de.telekom.voice.cli.command.impl.SetDomainPreferenceCommand;
 import de.telekom.voice.cli.command.impl.StoredCommandsCommand;
 import de.telekom.voice.cli.command.impl.UserInfoCommand;
+import de.telekom.voice.cli.command.impl.WarmupCommand;
+import de.telekom.voice.cli.connector.ApacheTransport;
+import de.telekom.voice.cli.connector.ConnectionPoolSettings;
 import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.InstrumentedConnectionManager;
+import de.telekom.voice.cli.connector.OkHttpTransport;
+import de.telekom.voice.cli.connector.Transport;
+import de.telekom.voice.cli.connector.TransportType;
 import de.telekom.voice.cli.environment.Environment;
 import de.telekom.voice.cli.environment.PasswordDatabase;
-import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import de.telekom.voice.cli.load.CommandLatencies;
+import de.telekom.voice.cli.load.LatencyStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.nio.file.Paths;
-import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -74,67 +88,81 @@ public class CliClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(CliClient.class);
     private static final String REPEAT_LAST_COMMAND = "!!";
     private static final String REPEAT_LAST_COMMAND_N = "**";
-    private static final Duration MAXIMUM_CONNECTION_LIFETIME = Duration.ofMinutes(1);
 
     private final Console console;
 
     private final Map<String, Command> commands = new HashMap<>();
     private final Context context;
     private final ExceptionHelper exceptionHelper;
+    private final LoadReportHelper loadReportHelper;
+    private final ContextOptionsHelper contextOptionsHelper;
+    private final CommandLatencies commandLatencies = new CommandLatencies();
+    private final WarmupCommand warmupCommand;
+    private final int warmupConnections;
 
     @Nullable
     private String lastCommand;
 
-    public CliClient(Environment environment, String apiKey, Console console, PasswordDatabase passwordDatabase) {
+    public CliClient(Environment environment, String apiKey, long audioCacheSize, TransportType transportType, ConnectionPoolSettings poolSettings, int warmupConnections, Console console, PasswordDatabase passwordDatabase) {
         this.context = new Context(this::execute);
         this.console = console;
+        this.warmupConnections = warmupConnections;
 
         // Register commands tab completion callback
         this.console.setCommandsSupplier(this::supplyCommands);
 
-        ObjectMapper mapper = ObjectMapperFactory.create();
+        CodecRegistry codecs = new CodecRegistry();
 
         // Helper
         SessionHelper sessionHelper = new SessionHelper();
-        SkillResultHelper skillResultHelper = new SkillResultHelper();
+        SkillResultHelper skillResultHelper = new SkillResultHelper(codecs);
         exceptionHelper = new ExceptionHelper(console, skillResultHelper, sessionHelper);
         ArgumentHelper argumentHelper = new ArgumentHelper();
-        MetadataHelper metadataHelper = new MetadataHelper();
-        FileHelper fileHelper = new FileHelper();
+        MetadataHelper metadataHelper = new MetadataHelper(codecs);
+        AudioCache audioCache = new AudioCache(audioCacheSize);
+        FileHelper fileHelper = new FileHelper(audioCache);
+        loadReportHelper = new LoadReportHelper();
+        contextOptionsHelper = new ContextOptionsHelper(codecs);
 
         // Connectors
-        HttpClient httpClient = createHttpClient();
+        Transport transport;
+        InstrumentedConnectionManager connectionManager = null;
+        if (transportType == TransportType.HTTP2) {
+            transport = OkHttpTransport.create(poolSettings);
+        } else {
+            ApacheTransport apacheTransport = ApacheTransport.create(poolSettings);
+            connectionManager = apacheTransport.getConnectionManager();
+            transport = apacheTransport;
+        }
 
-        Connector connector = new Connector(environment.getBaseUrls(), apiKey, mapper, httpClient);
+        Connector connector = new Connector(environment.getBaseUrls(), apiKey, codecs, transport, poolSettings);
 
         // Commands
         registerCommand(new QuitCommand());
         registerCommand(new HelpCommand(commands.values(), console));
         registerCommand(new StoredCommandsCommand(console, argumentHelper));
         registerCommand(new InvokeTextCommand(connector, console, skillResultHelper, sessionHelper, metadataHelper, exceptionHelper));
-        registerCommand(new InvokeAudioCommand(connector, console, skillResultHelper, fileHelper, sessionHelper, metadataHelper, exceptionHelper));
-        registerCommand(new LoginIdmCommand(console, connector, environment.getIdmConfig(), exceptionHelper));
+        registerCommand(new InvokeAudioCommand(connector, console, skillResultHelper, fileHelper, sessionHelper, metadataHelper, exceptionHelper, argumentHelper, commandLatencies));
+        registerCommand(new InvokeAudioCorpusCommand(connector, console, sessionHelper, metadataHelper, loadReportHelper, argumentHelper, fileHelper, codecs));
+        registerCommand(new LoginIdmCommand(console, connector, environment.getIdmConfig(), exceptionHelper, codecs));
         registerCommand(new InvokeIntentCommand(connector, console, skillResultHelper, sessionHelper, metadataHelper, exceptionHelper));
         registerCommand(new PrintPasswordsCommand(console, passwordDatabase));
         registerCommand(new SetAccessTokenCommand(console));
-        registerCommand(new PutTokenCommand(console, connector, mapper, exceptionHelper));
+        registerCommand(new PutTokenCommand(console, connector, codecs, exceptionHelper));
         registerCommand(new ListTokensCommand(console, connector, exceptionHelper));
         registerCommand(new ListHistoryEntriesCommand(connector, console, exceptionHelper));
         registerCommand(new UserInfoCommand(console, connector, exceptionHelper));
         registerCommand(new NicknameCommand(console, connector, exceptionHelper));
         registerCommand(new SetDomainPreferenceCommand(console, connector, exceptionHelper));
+        registerCommand(new LoadTextCommand(connector, console, sessionHelper, metadataHelper, argumentHelper, loadReportHelper));
+        registerCommand(new LoadTextRateCommand(connector, console, sessionHelper, metadataHelper, argumentHelper, loadReportHelper));
+        registerCommand(new LatencyCommand(console, commandLatencies, loadReportHelper));
+        registerCommand(new AudioCacheCommand(console, audioCache));
+        registerCommand(new PoolStatsCommand(console, connectionManager));
+        warmupCommand = new WarmupCommand(console, connector, argumentHelper);
+        registerCommand(warmupCommand);
     }
 
-    private HttpClient createHttpClient() {
-        HttpClientBuilder builder = HttpClientBuilder.create()
-                .setMaxConnPerRoute(Integer.MAX_VALUE)
-                .setMaxConnTotal(Integer.MAX_VALUE)
-                .setKeepAliveStrategy((response, ctx) -> MAXIMUM_CONNECTION_LIFETIME.toMillis())
-                .setUserAgent(Connector.USER_AGENT);
-        return builder.build();
-    }
-
-
     private Iterable<Command> supplyCommands() {
         return commands.values();
     }
@@ -152,6 +180,7 @@ public class CliClient {
 
     public void run() {
         loadOptions();
+        warmUp();
 
         console.printLine("Welcome to the Voice CLI! Type 'help' to see all available commands.");
         context.setRunning(true);
@@ -191,13 +220,20 @@ public class CliClient {
                 lastCommand = input;
             }
 
+            LatencyStatistics repeatLatencies = LatencyStatistics.closedLoop();
             try {
                 for (int i = 0; i < numberOfExecutions; i++) {
                     if (numberOfExecutions > 1) {
                         console.printLine(String.format("Execution %d / %d: ", i + 1, numberOfExecutions));
                     }
 
+                    long start = System.nanoTime();
                     execute(input);
+                    repeatLatencies.record(start, System.nanoTime());
+                }
+                if (numberOfExecutions > 1) {
+                    console.printLine();
+                    loadReportHelper.printLatencies(repeatLatencies, console);
                 }
             } catch (RuntimeException e) {
                 LOGGER.error("Unhandled exception while invoking command", e);
@@ -210,12 +246,49 @@ public class CliClient {
         console.printLine("Goodbye!");
     }
 
+    /**
+     * Executes the given commands one after another without asking for input, e.g. for load runs from scripts.
+     *
+     * @param inputs Commands to execute.
+     */
+    public void runHeadless(List<String> inputs) {
+        loadOptions();
+        warmUp();
+        context.setRunning(true);
+
+        for (String input : inputs) {
+            if (!context.isRunning()) {
+                break;
+            }
+            console.printFormat("Command: %s", input);
+            console.printLine();
+
+            try {
+                execute(input);
+            } catch (RuntimeException e) {
+                LOGGER.error("Unhandled exception while invoking command", e);
+            } catch (UserInterruptedException e) {
+                break;
+            }
+            console.printLine();
+        }
+    }
+
     private void loadOptions() {
-        ContextOptionsHelper helper = new ContextOptionsHelper();
-        Context.Options options = helper.loadFromFile(Paths.get("options.json"));
+        Context.Options options = contextOptionsHelper.loadFromFile(Paths.get("options.json"));
         context.setOptions(options);
     }
 
+    /**
+     * Opens connections before the first command if requested, so it isn't slowed down by connecting.
+     */
+    private void warmUp() {
+        if (warmupConnections > 0) {
+            warmupCommand.invoke(context, String.valueOf(warmupConnections));
+            console.printLine();
+        }
+    }
+
     private void execute(String input) throws UserInterruptedException {
         String[] parts = input.split(" ", 2);
         String command = parts[0].trim();
@@ -249,11 +322,14 @@ public class CliClient {
                 return;
             }
 
+            long start = System.nanoTime();
             try {
                 commandObject.invoke(context, args);
             } catch (ExecutionException e) {
                 console.printLine(e.getMessage());
                 exceptionHelper.handleException(e.getCause(), context);
+            } finally {
+                commandLatencies.forCommand(command).record(start, System.nanoTime());
             }
         }
     }
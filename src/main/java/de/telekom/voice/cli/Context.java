@@ -30,6 +30,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.telekom.voice.cli.cli.UserInterruptedException;
 import de.telekom.voice.cli.command.ExecutionException;
+import de.telekom.voice.cli.command.helper.MetadataHelper;
+import de.telekom.voice.cli.connector.InvocationProfile;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
@@ -46,6 +48,8 @@ public class Context {
     private final Map<String, Object> data = new HashMap<>();
     private final CommandExecutor commandExecutor;
     private Options options;
+    @Nullable
+    private InvocationProfile invocationProfile;
 
     public Context(CommandExecutor commandExecutor) {
         this.commandExecutor = commandExecutor;
@@ -70,6 +74,7 @@ public class Context {
 
     public void setAccessToken(@Nullable String accessToken) {
         this.accessToken = accessToken;
+        this.invocationProfile = null;
     }
 
     public void setPlatformRefreshToken(@Nullable String platformRefreshToken) {
@@ -81,6 +86,24 @@ public class Context {
         return platformRefreshToken;
     }
 
+    /**
+     * Creates an isolated copy of this context, e.g. for a virtual user in a load run.
+     * <p>
+     * The copy shares the credentials and options, but has its own data (e.g. the session id).
+     *
+     * @return Forked context.
+     */
+    public Context fork() {
+        Context fork = new Context(commandExecutor);
+        fork.running = running;
+        fork.accessToken = accessToken;
+        fork.platformRefreshToken = platformRefreshToken;
+        fork.username = username;
+        fork.options = options;
+        fork.invocationProfile = invocationProfile;
+        return fork;
+    }
+
     public void execute(String input) throws ExecutionException, UserInterruptedException {
         commandExecutor.execute(input);
     }
@@ -114,6 +137,22 @@ public class Context {
         return options.getCapabilities();
     }
 
+    /**
+     * Returns the header values of invocations, which are only encoded again after the access token or the options
+     * changed.
+     *
+     * @param metadataHelper Helper for encoding the metadata.
+     * @return Profile.
+     */
+    public InvocationProfile getInvocationProfile(MetadataHelper metadataHelper) {
+        InvocationProfile profile = invocationProfile;
+        if (profile == null) {
+            profile = new InvocationProfile(accessToken, metadataHelper.serialize(getMetadata()), getDeviceCapabilities());
+            invocationProfile = profile;
+        }
+        return profile;
+    }
+
     @Nullable
     public String getUsername() {
         return username;
@@ -129,6 +168,7 @@ public class Context {
 
     public void setOptions(Options options) {
         this.options = options;
+        this.invocationProfile = null;
     }
 
 
@@ -137,7 +177,7 @@ public class Context {
     }
 
     public static class Options {
-        public static final Options DEFAULT = new Options(null, null, null, null, false, null);
+        public static final Options DEFAULT = new Options(null, null, null, null, null, false, null);
 
         @Nullable
         private final String serialNumber;
@@ -148,6 +188,9 @@ public class Context {
         @Nullable
         private final String wakeUpWord;
 
+        @Nullable
+        private final String wakeUpWordAudio;
+
         @Nullable
         private final String capabilities;
 
@@ -160,12 +203,14 @@ public class Context {
                 @JsonProperty("serialNumber") @Nullable String serialNumber,
                 @JsonProperty("dynamicDeviceMetadata") @Nullable Map<String, String> dynamicDeviceMetadata,
                 @JsonProperty("wakeUpWord") @Nullable String wakeUpWord,
+                @JsonProperty("wakeUpWordAudio") @Nullable String wakeUpWordAudio,
                 @JsonProperty("capabilities") @Nullable String capabilities,
                 @JsonProperty("debug") boolean debug,
                 @JsonProperty("enablePartialTranscriptions") @Nullable Boolean enablePartialTranscriptions) {
             this.serialNumber = serialNumber;
             this.dynamicDeviceMetadata = dynamicDeviceMetadata;
             this.wakeUpWord = wakeUpWord;
+            this.wakeUpWordAudio = wakeUpWordAudio;
             this.capabilities = capabilities;
             this.debug = debug;
             this.enablePartialTranscriptions = enablePartialTranscriptions == null ? false : enablePartialTranscriptions;
@@ -181,6 +226,14 @@ public class Context {
             return wakeUpWord;
         }
 
+        /**
+         * @return WAV file sent before the audio of every audio invocation.
+         */
+        @Nullable
+        public String getWakeUpWordAudio() {
+            return wakeUpWordAudio;
+        }
+
         @Nullable
         public String getCapabilities() {
             return capabilities;
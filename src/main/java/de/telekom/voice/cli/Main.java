@@ -31,6 +31,8 @@ import de.telekom.voice.cli.cli.ConsoleImpl;
 import de.telekom.voice.cli.cli.JLineTerminal;
 import de.telekom.voice.cli.cli.JavaTerminal;
 import de.telekom.voice.cli.cli.Terminal;
+import de.telekom.voice.cli.connector.ConnectionPoolSettings;
+import de.telekom.voice.cli.connector.TransportType;
 import de.telekom.voice.cli.environment.Environment;
 import de.telekom.voice.cli.environment.EnvironmentFactory;
 import de.telekom.voice.cli.environment.PasswordDatabase;
@@ -39,10 +41,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.time.Duration;
 
 public class Main {
     private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+    private static final long DEFAULT_AUDIO_CACHE_SIZE_MB = 64;
+    private static final long MEGABYTE = 1024 * 1024;
 
     public static void main(String[] args) {
 
@@ -66,11 +72,21 @@ public class Main {
                 throw new ParseException("No IDM Client ID provided");
             }
 
+            long audioCacheSize = parseLong(options.AUDIO_CACHE_SIZE, DEFAULT_AUDIO_CACHE_SIZE_MB, 0) * MEGABYTE;
+            TransportType transportType = parseTransportType(options.TRANSPORT.get());
+            ConnectionPoolSettings poolSettings = parsePoolSettings(options);
+            int warmupConnections = (int) parseLong(options.WARMUP, 0, 0);
+
             Environment environment = buildEnvironment(idmClientId);
             PasswordDatabase passwordDatabase = loadPasswordDatabase();
 
             console = buildConsole(passwordDatabase);
-            new CliClient(environment, apiKey, console, passwordDatabase).run();
+            CliClient client = new CliClient(environment, apiKey, audioCacheSize, transportType, poolSettings, warmupConnections, console, passwordDatabase);
+            if (options.EXECUTE.isPresent()) {
+                client.runHeadless(options.EXECUTE.getAll());
+            } else {
+                client.run();
+            }
         } catch (ParseException e) {
             LOGGER.error("Exception while parsing commandline parameters", e);
         } finally {
@@ -80,6 +96,45 @@ public class Main {
         }
     }
 
+    private static TransportType parseTransportType(@Nullable String name) throws ParseException {
+        if (name == null) {
+            return TransportType.HTTP1;
+        }
+        TransportType type = TransportType.parse(name);
+        if (type == null) {
+            throw new ParseException("Unknown transport '" + name + "', expected http1 or http2");
+        }
+        return type;
+    }
+
+    private static ConnectionPoolSettings parsePoolSettings(Options options) throws ParseException {
+        ConnectionPoolSettings defaults = ConnectionPoolSettings.DEFAULT;
+        return new ConnectionPoolSettings(
+                (int) parseLong(options.MAX_CONNECTIONS, defaults.getMaxConnections(), 1),
+                (int) parseLong(options.MAX_CONNECTIONS_PER_HOST, defaults.getMaxConnectionsPerRoute(), 1),
+                Duration.ofSeconds(parseLong(options.KEEP_ALIVE, defaults.getKeepAlive().getSeconds(), 1)),
+                Duration.ofSeconds(parseLong(options.MAX_IDLE_TIME, defaults.getMaxIdleTime().getSeconds(), 0)),
+                Duration.ofMillis(parseLong(options.VALIDATE_AFTER_INACTIVITY, defaults.getValidateAfterInactivity().toMillis(), 0)),
+                Duration.ofMillis(parseLong(options.CONNECTION_REQUEST_TIMEOUT, defaults.getConnectionRequestTimeout().toMillis(), 0)));
+    }
+
+    private static long parseLong(Options.OptItem option, long defaultValue, long minimum) throws ParseException {
+        String value = option.get();
+        if (value == null) {
+            return defaultValue;
+        }
+        long result;
+        try {
+            result = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid value '" + value + "' for --" + option.getLongOpt());
+        }
+        if (result < minimum || result > Integer.MAX_VALUE) {
+            throw new ParseException("Value of --" + option.getLongOpt() + " must be between " + minimum + " and " + Integer.MAX_VALUE);
+        }
+        return result;
+    }
+
     private static Console buildConsole(PasswordDatabase passwordDatabase) {
         Terminal terminal;
         try {
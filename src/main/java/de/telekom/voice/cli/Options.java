@@ -32,6 +32,10 @@ import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.ParseException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 @SuppressWarnings("squid:S00116") // suppress that option fields are ALL_CAPITALS
 public final class Options {
 
@@ -51,6 +55,16 @@ public final class Options {
     final OptItem HELP = addOption("h", "help", false, "Prints this help");
     final OptItem APIKEY = addOption("a", "apikey", true, "Sets the API key");
     final OptItem IDM_CLIENT_ID = addOption("c", "idm-client-id", true, "Sets the Telekom IDM Client ID");
+    final OptItem AUDIO_CACHE_SIZE = addOption(null, "audio-cache-size", true, "Sets the maximum size of the audio file cache in MB, 0 disables it (default: 64)");
+    final OptItem TRANSPORT = addOption(null, "transport", true, "Sets the HTTP version, http1 or http2 (default: http1). With http2, the connection limits aren't enforced, the limit per host only caps the idle connections kept open");
+    final OptItem MAX_CONNECTIONS = addOption(null, "max-connections", true, "Sets the maximum number of HTTP connections, not enforced with --transport http2 (default: 200)");
+    final OptItem MAX_CONNECTIONS_PER_HOST = addOption(null, "max-connections-per-host", true, "Sets the maximum number of HTTP connections to a single host (default: 100)");
+    final OptItem KEEP_ALIVE = addOption(null, "keep-alive", true, "Sets how long idle HTTP connections are kept open for reuse in seconds, at least 1 (default: 60)");
+    final OptItem MAX_IDLE_TIME = addOption(null, "max-idle-time", true, "Sets after how many seconds idle HTTP connections are closed in the background, 0 disables it (default: 30)");
+    final OptItem VALIDATE_AFTER_INACTIVITY = addOption(null, "validate-after-inactivity", true, "Sets after how many milliseconds of inactivity HTTP connections are checked before reuse, 0 disables it (default: 2000)");
+    final OptItem CONNECTION_REQUEST_TIMEOUT = addOption(null, "connection-request-timeout", true, "Sets after how many milliseconds requests fail if no HTTP connection becomes free, 0 waits forever (default: 30000)");
+    final OptItem WARMUP = addOption(null, "warmup", true, "Opens the given number of HTTP connections to every API host at startup (default: 0)");
+    final OptItem EXECUTE = addOption("e", "execute", true, "Executes the given command without interaction and quits afterwards, can be given multiple times");
 
     public final class OptItem {
         private final String longOpt;
@@ -59,10 +73,19 @@ public final class Options {
             this.longOpt = longOpt;
         }
 
+        String getLongOpt() {
+            return longOpt;
+        }
+
         String get() {
             return commandLine.getOptionValue(longOpt);
         }
 
+        List<String> getAll() {
+            String[] values = commandLine.getOptionValues(longOpt);
+            return values == null ? Collections.emptyList() : Arrays.asList(values);
+        }
+
         boolean isPresent() {
             return commandLine.hasOption(longOpt);
         }
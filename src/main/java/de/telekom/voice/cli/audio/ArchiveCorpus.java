@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * A corpus in an archive.
+ * <p>
+ * The index is kept next to the archive in {@code <archive>}{@value #INDEX_SUFFIX}. It's built once by reading the
+ * whole archive and is valid as long as size and modification time of the archive are unchanged. Members are then
+ * read directly at their indexed offset, without extracting the archive.
+ */
+abstract class ArchiveCorpus extends AudioCorpus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchiveCorpus.class);
+
+    static final String INDEX_SUFFIX = ".voice-cli-index.json";
+
+    private long size = -1;
+    private long lastModified = -1;
+
+    ArchiveCorpus(Path root, CodecRegistry codecs) {
+        super(root, codecs);
+    }
+
+    /**
+     * Re-indexes the archive if it changed.
+     */
+    @Override
+    public synchronized void refresh() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(getRoot(), BasicFileAttributes.class);
+        long currentSize = attributes.size();
+        long currentLastModified = attributes.lastModifiedTime().toMillis();
+        if (currentSize == size && currentLastModified == lastModified) {
+            return;
+        }
+
+        reset();
+        Path indexFile = getRoot().resolveSibling(getRoot().getFileName() + INDEX_SUFFIX);
+        Index index = readIndex(indexFile);
+        if (index != null && index.getSize() == currentSize && index.getLastModified() == currentLastModified) {
+            setEntries(index.getEntries());
+        } else {
+            LOGGER.info("Indexing archive {}", getRoot());
+            List<CorpusEntry> entries = scan();
+            setEntries(entries);
+            writeIndex(indexFile, new Index(INDEX_VERSION, currentSize, currentLastModified, entries));
+        }
+        size = currentSize;
+        lastModified = currentLastModified;
+    }
+
+    /**
+     * Reads all WAV members of the archive and parses their headers.
+     *
+     * @return Entries in archive order.
+     */
+    abstract List<CorpusEntry> scan() throws IOException;
+
+    /**
+     * Releases everything derived from the previous version of the archive, e.g. open files or mappings.
+     */
+    abstract void reset() throws IOException;
+}
@@ -0,0 +1,206 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded cache of audio files in direct buffers, so repeated invocations with the same file neither read the
+ * file again nor allocate on the heap.
+ * <p>
+ * Entries are keyed by path and are only used while size and modification time of the file are unchanged. The least
+ * recently used entries are evicted when the cache is full. Files larger than the cache are streamed from disk.
+ */
+public class AudioCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioCache.class);
+
+    private final long maxBytes;
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxBytes Maximum total size of the cached files, 0 disables the cache.
+     */
+    public AudioCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the given file from the cache, reading it into the cache if it isn't cached yet or changed since.
+     *
+     * @param file WAV file.
+     * @return Payload.
+     * @throws IOException           If the file can't be read.
+     * @throws InvalidAudioException If the file isn't a valid RIFF/WAVE file.
+     */
+    public AudioPayload load(Path file) throws IOException, InvalidAudioException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+                hits++;
+                return new ByteBufferAudioPayload(entry.buffer, entry.header);
+            }
+            misses++;
+            if (entry != null) {
+                remove(key);
+            }
+        }
+
+        if (size > Math.min(maxBytes, Integer.MAX_VALUE)) {
+            return new FileAudioPayload(file);
+        }
+
+        ByteBuffer buffer = read(key, size);
+        WavHeader header = WavHeader.parse(buffer);
+        synchronized (this) {
+            if (entries.put(key, new Entry(buffer, header, size, lastModified)) == null) {
+                bytes += size;
+            }
+            evict();
+        }
+        return new ByteBufferAudioPayload(buffer, header);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(entries.size(), bytes, maxBytes, hits, misses, evictions);
+    }
+
+    private static ByteBuffer read(Path file, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until full or end of file
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void remove(Path key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.size;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Entry> eldest = iterator.next();
+            LOGGER.debug("Evicting {} from audio cache", eldest.getKey());
+            bytes -= eldest.getValue().size;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry {
+        private final ByteBuffer buffer;
+        private final WavHeader header;
+        private final long size;
+        private final long lastModified;
+
+        Entry(ByteBuffer buffer, WavHeader header, long size, long lastModified) {
+            this.buffer = buffer;
+            this.header = header;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    public static final class Statistics {
+        private final int entries;
+        private final long bytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        Statistics(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
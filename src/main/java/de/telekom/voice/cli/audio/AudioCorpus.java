@@ -0,0 +1,248 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.telekom.voice.cli.base.CodecRegistry;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A collection of WAV files, either a directory tree or an archive.
+ * <p>
+ * Every corpus keeps an index of its files containing the parsed WAV headers, so later runs neither scan nor parse
+ * unchanged files again. Where possible, the audio is served from memory-mapped regions instead of being copied into
+ * the heap.
+ */
+public abstract class AudioCorpus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioCorpus.class);
+
+    static final int INDEX_VERSION = 2;
+
+    private static final String WAV_EXTENSION = ".wav";
+
+    private final Path root;
+    private final CodecRegistry codecs;
+    private volatile List<CorpusEntry> entries = Collections.emptyList();
+
+    AudioCorpus(Path root, CodecRegistry codecs) {
+        this.root = root;
+        this.codecs = codecs;
+    }
+
+    /**
+     * Opens the corpus in the given directory or archive, updating its index if files were added, modified or
+     * removed.
+     *
+     * @param root   Root directory, or a .zip, .tar, .tar.gz or .tgz archive.
+     * @param codecs Codecs for reading and writing the index.
+     * @return Corpus.
+     * @throws IOException If the corpus can't be read or is of an unsupported type.
+     */
+    public static AudioCorpus open(Path root, CodecRegistry codecs) throws IOException {
+        AudioCorpus corpus;
+        String name = root.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (Files.isDirectory(root)) {
+            corpus = new DirectoryCorpus(root, codecs);
+        } else if (name.endsWith(".zip")) {
+            corpus = new ZipCorpus(root, codecs);
+        } else if (name.endsWith(".tar")) {
+            corpus = new TarCorpus(root, codecs);
+        } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            corpus = new TarGzCorpus(root, codecs);
+        } else {
+            throw new IOException("Unsupported corpus " + root + ", expected a directory or a .zip, .tar, .tar.gz or .tgz archive");
+        }
+        corpus.refresh();
+        return corpus;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return All entries, including invalid ones, in the order they are best read in.
+     */
+    public List<CorpusEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Rescans the corpus for added, modified or removed files.
+     *
+     * @throws IOException If the corpus can't be read.
+     */
+    public abstract void refresh() throws IOException;
+
+    /**
+     * Returns the audio of the given entry.
+     *
+     * @param entry Valid entry of this corpus, see {@link CorpusEntry#isValid()}.
+     * @return Payload.
+     * @throws IOException If the file can't be read.
+     */
+    public abstract AudioPayload load(CorpusEntry entry) throws IOException;
+
+    /**
+     * Like {@link #load(CorpusEntry)}, but also reads the file into memory, so writing the payload doesn't wait for
+     * the disk.
+     *
+     * @param entry Valid entry of this corpus, see {@link CorpusEntry#isValid()}.
+     * @return Payload.
+     * @throws IOException If the file can't be read.
+     */
+    public AudioPayload preload(CorpusEntry entry) throws IOException {
+        return load(entry);
+    }
+
+    /**
+     * @return True if entries can be loaded in any order at the same cost, false if they are best loaded in the order
+     * of {@link #getEntries()}.
+     */
+    public boolean isRandomAccess() {
+        return true;
+    }
+
+    void setEntries(List<CorpusEntry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    @Nullable
+    Index readIndex(Path indexFile) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+
+        try {
+            Index index = codecs.reader(Index.class).readValue(indexFile.toFile());
+            return index.version == INDEX_VERSION ? index : null;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read corpus index {}, rebuilding it", indexFile, e);
+            return null;
+        }
+    }
+
+    void writeIndex(Path indexFile, Index index) {
+        try {
+            codecs.writer(Index.class).writeValue(indexFile.toFile(), index);
+        } catch (IOException e) {
+            // The corpus is still usable, the index is rebuilt on the next run
+            LOGGER.warn("Failed to write corpus index {}", indexFile, e);
+        }
+    }
+
+    static boolean isWavFile(String name) {
+        return name.toLowerCase(Locale.ROOT).endsWith(WAV_EXTENSION);
+    }
+
+    /**
+     * Creates the entry of a file by parsing its header.
+     *
+     * @param start Buffer containing at least the beginning of the file up to the data chunk.
+     */
+    static CorpusEntry index(String path, long size, long lastModified, long offset, ByteBuffer start) {
+        try {
+            WavHeader header = WavHeader.parse(start, size);
+            return new CorpusEntry(path, size, lastModified, offset, header, null);
+        } catch (InvalidAudioException e) {
+            LOGGER.debug("Invalid audio file {}: {}", path, e.getMessage());
+            return new CorpusEntry(path, size, lastModified, offset, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the beginning of a file, enough to parse its header.
+     */
+    static ByteBuffer readStart(InputStream in, long size) throws IOException {
+        byte[] start = new byte[(int) Math.min(size, WavHeader.PROBE_LENGTH)];
+        int length = IOUtils.read(in, start);
+        return ByteBuffer.wrap(start, 0, length);
+    }
+
+    /**
+     * Reads a complete compressed member.
+     */
+    static AudioPayload readFully(InputStream in, CorpusEntry entry) throws IOException {
+        byte[] content = new byte[(int) entry.getSize()];
+        IOUtils.readFully(in, content);
+        return new ByteBufferAudioPayload(ByteBuffer.wrap(content), entry.getHeader());
+    }
+
+    /**
+     * On-disk format of the index.
+     */
+    static final class Index {
+        @JsonProperty
+        private final int version;
+        @JsonProperty
+        private final long size;
+        @JsonProperty
+        private final long lastModified;
+        @JsonProperty
+        private final List<CorpusEntry> entries;
+
+        /**
+         * @param size         Size of the archive, 0 for directories.
+         * @param lastModified Last modification time of the archive, 0 for directories.
+         */
+        @JsonCreator
+        Index(@JsonProperty("version") int version,
+              @JsonProperty("size") long size,
+              @JsonProperty("lastModified") long lastModified,
+              @JsonProperty("entries") List<CorpusEntry> entries) {
+            this.version = version;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.entries = entries;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        List<CorpusEntry> getEntries() {
+            return entries;
+        }
+    }
+}
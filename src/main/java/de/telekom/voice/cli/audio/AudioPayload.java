@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Audio data which is streamed into a request body, instead of being held as a whole in memory.
+ */
+public interface AudioPayload {
+    /**
+     * @return Length of the payload in bytes, or -1 if unknown in advance.
+     */
+    long getLength();
+
+    /**
+     * @return Format and position of the audio data within the payload.
+     */
+    WavHeader getHeader();
+
+    /**
+     * Writes the payload to the given stream. Can be called multiple times, e.g. on retries.
+     *
+     * @param out Stream to write to, not closed by this method.
+     * @throws IOException If reading or writing failed.
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
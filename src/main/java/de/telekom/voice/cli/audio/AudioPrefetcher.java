@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Predicate;
+
+/**
+ * Loads the audio of corpus entries ahead of time on a background thread, so reading the files overlaps with the
+ * requests of the previous entries.
+ * <p>
+ * At most {@code depth} loaded entries are queued, the background thread blocks until the next one is taken. Entries
+ * are returned in the given order. With a depth of 0, entries are loaded on the calling thread when taken.
+ */
+public class AudioPrefetcher implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioPrefetcher.class);
+
+    private final AudioCorpus corpus;
+    private final List<CorpusEntry> entries;
+    private final Predicate<CorpusEntry> filter;
+    @Nullable
+    private final BlockingQueue<Item> queue;
+    @Nullable
+    private final Thread thread;
+    private int taken;
+    private long waitNanos;
+
+    /**
+     * @param corpus  Corpus of the entries.
+     * @param entries Entries to load, in order.
+     * @param filter  Only entries matching the filter are loaded, the others are returned without audio.
+     * @param depth   Number of entries to load ahead.
+     */
+    public AudioPrefetcher(AudioCorpus corpus, List<CorpusEntry> entries, Predicate<CorpusEntry> filter, int depth) {
+        this.corpus = corpus;
+        this.entries = entries;
+        this.filter = filter;
+        if (depth > 0) {
+            this.queue = new ArrayBlockingQueue<>(depth);
+            this.thread = new Thread(this::prefetch, "audio-prefetch");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } else {
+            this.queue = null;
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Returns the next entry, waiting until its audio is loaded.
+     *
+     * @return Next entry.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws IllegalStateException If all entries were taken.
+     */
+    public Item take() throws InterruptedException {
+        if (taken == entries.size()) {
+            throw new IllegalStateException("All entries taken");
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return queue == null ? load(entries.get(taken)) : queue.take();
+        } finally {
+            taken++;
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return Time spent in {@link #take()} waiting for audio, in nanoseconds.
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void prefetch() {
+        try {
+            for (CorpusEntry entry : entries) {
+                queue.put(load(entry));
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("Prefetching interrupted");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Failures are returned with the entry rather than thrown, anything escaping the background thread would leave
+     * {@link #take()} waiting forever. Besides I/O errors, this includes errors like the {@link InternalError} raised
+     * when a file mapped for preloading was truncated, or running out of direct buffer memory.
+     */
+    private Item load(CorpusEntry entry) {
+        try {
+            if (!filter.test(entry)) {
+                return new Item(entry, null, null);
+            }
+            return new Item(entry, corpus.preload(entry), null);
+        } catch (Throwable e) {
+            return new Item(entry, null, e);
+        }
+    }
+
+    public static final class Item {
+        private final CorpusEntry entry;
+        @Nullable
+        private final AudioPayload audio;
+        @Nullable
+        private final Throwable error;
+
+        Item(CorpusEntry entry, @Nullable AudioPayload audio, @Nullable Throwable error) {
+            this.entry = entry;
+            this.audio = audio;
+            this.error = error;
+        }
+
+        public CorpusEntry getEntry() {
+            return entry;
+        }
+
+        /**
+         * @return Loaded audio, null if the entry was filtered or loading failed.
+         */
+        @Nullable
+        public AudioPayload getAudio() {
+            return audio;
+        }
+
+        /**
+         * @return Reason why loading failed, null if it succeeded or the entry was filtered.
+         */
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
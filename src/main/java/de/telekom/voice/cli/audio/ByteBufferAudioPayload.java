@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Audio held in a buffer, e.g. a memory-mapped file. Writing doesn't change the buffer, so the payload can be sent
+ * any number of times, also concurrently.
+ */
+public class ByteBufferAudioPayload implements AudioPayload {
+    private final ByteBuffer buffer;
+    private final WavHeader header;
+
+    /**
+     * @param buffer Complete WAV file, starting at the position of the buffer.
+     * @param header Parsed header of the file.
+     */
+    public ByteBufferAudioPayload(ByteBuffer buffer, WavHeader header) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.header = header;
+    }
+
+    /**
+     * Parses the header of the given buffer, without copying it.
+     *
+     * @param buffer Complete WAV file, starting at the position of the buffer.
+     * @return Payload.
+     * @throws InvalidAudioException If the buffer doesn't contain a valid RIFF/WAVE file.
+     */
+    public static ByteBufferAudioPayload of(ByteBuffer buffer) throws InvalidAudioException {
+        return new ByteBufferAudioPayload(buffer, WavHeader.parse(buffer));
+    }
+
+    @Override
+    public long getLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public WavHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return Complete file, sharing the content of the payload.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * @return Audio data without the header, sharing the content of the payload.
+     */
+    public ByteBuffer getData() {
+        ByteBuffer data = buffer.duplicate();
+        data.position(data.position() + (int) header.getDataOffset());
+        if (header.isLengthKnown()) {
+            data.limit(data.position() + (int) header.getDataLength());
+        }
+        return data.slice();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        ByteBuffer source = buffer.duplicate();
+        WritableByteChannel target = Channels.newChannel(out);
+        while (source.hasRemaining()) {
+            target.write(source);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Converts PCM or IEEE float audio of any sample rate, bit depth and number of channels into the format supported by
+ * the voice platform while it is written.
+ * <p>
+ * The channels are mixed down to mono and the sample rate is converted with a {@link PolyphaseResampler}. Nothing but
+ * the filter state and a small output buffer is held in memory, regardless of the length of the audio.
+ */
+public class ConvertingAudioPayload implements AudioPayload {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final AudioPayload source;
+    private final WavHeader header;
+
+    /**
+     * @param source Audio to convert.
+     * @throws InvalidAudioException If the audio can't be converted.
+     */
+    public ConvertingAudioPayload(AudioPayload source) throws InvalidAudioException {
+        WavHeader sourceHeader = source.getHeader();
+        if (!isConvertible(sourceHeader)) {
+            throw new InvalidAudioException(String.format("Can't convert audio format %s", sourceHeader.describe()));
+        }
+
+        long sourceFrames = sourceHeader.getDataLength() / sourceHeader.getFrameSize();
+        long frames = PolyphaseResampler.outputLength(sourceHeader.getSampleRate(), WavHeader.SUPPORTED_SAMPLE_RATE, sourceFrames);
+        this.source = source;
+        this.header = WavHeader.pcm(WavHeader.SUPPORTED_SAMPLE_RATE, WavHeader.SUPPORTED_BITS_PER_SAMPLE,
+                WavHeader.SUPPORTED_CHANNELS, frames * WavHeader.SUPPORTED_BITS_PER_SAMPLE / 8);
+    }
+
+    /**
+     * @return True if audio with the given header can be converted.
+     */
+    public static boolean isConvertible(WavHeader header) {
+        int bits = header.getBitsPerSample();
+        boolean pcm = header.getAudioFormat() == WavHeader.FORMAT_PCM && (bits == 8 || bits == 16 || bits == 24 || bits == 32);
+        boolean ieeeFloat = header.getAudioFormat() == WavHeader.FORMAT_IEEE_FLOAT && (bits == 32 || bits == 64);
+        return (pcm || ieeeFloat) && header.getChannels() > 0 && header.getSampleRate() > 0
+                && WavHeader.SUPPORTED_SAMPLE_RATE / gcd(header.getSampleRate(), WavHeader.SUPPORTED_SAMPLE_RATE) <= PolyphaseResampler.MAX_PHASES;
+    }
+
+    /**
+     * @return Header of the converted audio.
+     */
+    @Override
+    public WavHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public long getLength() {
+        return header.getDataOffset() + header.getDataLength();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(header.encode());
+        ConvertingOutputStream converter = new ConvertingOutputStream(out, source.getHeader(), header);
+        source.writeTo(converter);
+        converter.finish();
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Receives the complete source file, skips everything but the audio data and writes the converted samples.
+     */
+    private static class ConvertingOutputStream extends OutputStream implements PolyphaseResampler.SampleSink {
+        private final OutputStream out;
+        private final WavHeader sourceHeader;
+        private final int sampleSize;
+        private final byte[] frame;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final PolyphaseResampler resampler;
+        private long position;
+        private int frameLength;
+        private int bufferLength;
+
+        ConvertingOutputStream(OutputStream out, WavHeader sourceHeader, WavHeader targetHeader) {
+            this.out = out;
+            this.sourceHeader = sourceHeader;
+            this.sampleSize = sourceHeader.getFrameSize() / sourceHeader.getChannels();
+            this.frame = new byte[sourceHeader.getFrameSize()];
+            this.resampler = sourceHeader.getSampleRate() == targetHeader.getSampleRate() ? null
+                    : new PolyphaseResampler(sourceHeader.getSampleRate(), targetHeader.getSampleRate(),
+                    sourceHeader.getDataLength() / sourceHeader.getFrameSize());
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long dataStart = sourceHeader.getDataOffset();
+            long dataEnd = dataStart + sourceHeader.getDataLength();
+
+            // Only the part of the written bytes within the data chunk is converted
+            long start = Math.max(position, dataStart);
+            long end = Math.min(position + len, dataEnd);
+            for (long i = start; i < end; i++) {
+                frame[frameLength++] = b[(int) (off + i - position)];
+                if (frameLength == frame.length) {
+                    frameLength = 0;
+                    float sample = mixDown();
+                    if (resampler == null) {
+                        accept(sample);
+                    } else {
+                        resampler.push(sample, this);
+                    }
+                }
+            }
+            position += len;
+        }
+
+        @Override
+        public void accept(float sample) throws IOException {
+            int value = Math.round(sample * Short.MAX_VALUE);
+            value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+            if (bufferLength == buffer.length) {
+                out.write(buffer, 0, bufferLength);
+                bufferLength = 0;
+            }
+            buffer[bufferLength++] = (byte) value;
+            buffer[bufferLength++] = (byte) (value >> 8);
+        }
+
+        void finish() throws IOException {
+            if (resampler != null) {
+                resampler.finish(this);
+            }
+            out.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+
+        private float mixDown() {
+            float sum = 0;
+            for (int offset = 0; offset < frame.length; offset += sampleSize) {
+                sum += decode(offset);
+            }
+            return sum / sourceHeader.getChannels();
+        }
+
+        private float decode(int offset) {
+            boolean ieeeFloat = sourceHeader.getAudioFormat() == WavHeader.FORMAT_IEEE_FLOAT;
+            switch (sampleSize) {
+                case 1:
+                    // 8 bit PCM is unsigned
+                    return ((frame[offset] & 0xFF) - 128) / 128f;
+                case 2:
+                    return (short) littleEndian(offset, 2) / 32768f;
+                case 3:
+                    return ((int) littleEndian(offset, 3) << 8 >> 8) / 8388608f;
+                case 4:
+                    int bits = (int) littleEndian(offset, 4);
+                    return ieeeFloat ? Float.intBitsToFloat(bits) : bits / 2147483648f;
+                default:
+                    return (float) Double.longBitsToDouble(littleEndian(offset, 8));
+            }
+        }
+
+        private long littleEndian(int offset, int length) {
+            long value = 0;
+            for (int i = length - 1; i >= 0; i--) {
+                value = value << 8 | (frame[offset + i] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.Nullable;
+
+/**
+ * An audio file in an {@link AudioCorpus}, as stored in the corpus index.
+ */
+public final class CorpusEntry {
+    /**
+     * Offset of compressed archive members, which can't be read in place.
+     */
+    public static final long NOT_ADDRESSABLE = -1;
+
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final long offset;
+    @Nullable
+    private final WavHeader header;
+    @Nullable
+    private final String error;
+
+    /**
+     * @param path         Path relative to the corpus root or within the archive, with '/' as separator.
+     * @param size         File size in bytes.
+     * @param lastModified Last modification time in epoch millis.
+     * @param offset       Offset of the file within the archive, 0 for files in directories and
+     *                     {@link #NOT_ADDRESSABLE} for compressed archive members.
+     * @param header       Parsed header, null if the file is invalid.
+     * @param error        Reason why the file is invalid, null if it is valid.
+     */
+    @JsonCreator
+    public CorpusEntry(@JsonProperty("path") String path,
+                       @JsonProperty("size") long size,
+                       @JsonProperty("lastModified") long lastModified,
+                       @JsonProperty("offset") long offset,
+                       @JsonProperty("header") @Nullable WavHeader header,
+                       @JsonProperty("error") @Nullable String error) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.offset = offset;
+        this.header = header;
+        this.error = error;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @Nullable
+    public WavHeader getHeader() {
+        return header;
+    }
+
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public boolean isValid() {
+        return header != null;
+    }
+
+    @JsonIgnore
+    public long getDurationMillis() {
+        return header == null ? 0 : header.getDurationMillis();
+    }
+
+    /**
+     * @return True if the file with the given attributes is still the indexed one.
+     */
+    boolean matches(long size, long lastModified) {
+        return this.size == size && this.lastModified == lastModified;
+    }
+}
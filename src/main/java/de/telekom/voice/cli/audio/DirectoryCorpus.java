@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A directory tree of WAV files.
+ * <p>
+ * The index is kept in {@value #INDEX_FILE} in the root directory. On later runs, only new or modified files are
+ * parsed again. The audio is served from memory-mapped files, so it isn't copied into the heap. Files are mapped for
+ * each use and not kept mapped, as corpora of tens of thousands of files would exceed the number of mappings a
+ * process may hold; unmapped files are still served from the page cache.
+ */
+final class DirectoryCorpus extends AudioCorpus {
+    static final String INDEX_FILE = ".voice-cli-index.json";
+
+    private boolean indexRead;
+
+    DirectoryCorpus(Path root, CodecRegistry codecs) {
+        super(root, codecs);
+    }
+
+    /**
+     * Rescans the directory for added, modified or removed files.
+     */
+    @Override
+    public synchronized void refresh() throws IOException {
+        Path indexFile = getRoot().resolve(INDEX_FILE);
+        Map<String, CorpusEntry> indexed = new HashMap<>();
+        if (indexRead) {
+            getEntries().forEach(entry -> indexed.put(entry.getPath(), entry));
+        } else {
+            Index index = readIndex(indexFile);
+            if (index != null) {
+                index.getEntries().forEach(entry -> indexed.put(entry.getPath(), entry));
+            }
+            indexRead = true;
+        }
+
+        List<CorpusEntry> scanned = new ArrayList<>();
+        boolean changed = false;
+        try (Stream<Path> files = Files.walk(getRoot())) {
+            List<Path> wavFiles = files
+                    .filter(file -> Files.isRegularFile(file) && isWavFile(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (Path file : wavFiles) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                String path = relativePath(file);
+                CorpusEntry entry = indexed.remove(path);
+                if (entry == null || !entry.matches(attributes.size(), attributes.lastModifiedTime().toMillis())) {
+                    try (InputStream in = Files.newInputStream(file)) {
+                        entry = index(path, attributes.size(), attributes.lastModifiedTime().toMillis(), 0, readStart(in, attributes.size()));
+                    }
+                    changed = true;
+                }
+                scanned.add(entry);
+            }
+        }
+        changed |= !indexed.isEmpty();
+
+        setEntries(scanned);
+        if (changed) {
+            writeIndex(indexFile, new Index(INDEX_VERSION, 0, 0, scanned));
+        }
+    }
+
+    /**
+     * Returns the audio of the given entry, backed by a memory-mapped region of the file.
+     */
+    @Override
+    public AudioPayload load(CorpusEntry entry) throws IOException {
+        return new ByteBufferAudioPayload(map(getRoot().resolve(entry.getPath())), entry.getHeader());
+    }
+
+    @Override
+    public AudioPayload preload(CorpusEntry entry) throws IOException {
+        MappedByteBuffer mapping = map(getRoot().resolve(entry.getPath()));
+        mapping.load();
+        return new ByteBufferAudioPayload(mapping, entry.getHeader());
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private String relativePath(Path file) {
+        return getRoot().relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+}
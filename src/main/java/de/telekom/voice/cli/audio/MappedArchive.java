@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only mapping of an archive in windows of {@value #WINDOW_SIZE} bytes, so archives of any size need only a few
+ * mappings, however many members they contain.
+ */
+final class MappedArchive {
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int PAGE_SIZE = 4096;
+
+    /**
+     * Keeps the reads of {@link #touch(ByteBuffer)} from being optimized away.
+     */
+    private static volatile byte sink;
+
+    private final Path file;
+    private final Map<Long, MappedByteBuffer> windows = new HashMap<>();
+
+    MappedArchive(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns a region of the archive, without copying it.
+     *
+     * @param offset Offset of the region.
+     * @param length Length of the region.
+     * @return Buffer containing the region.
+     * @throws IOException If the archive can't be mapped.
+     */
+    synchronized ByteBuffer slice(long offset, long length) throws IOException {
+        long window = offset / WINDOW_SIZE;
+        if (length == 0 || (offset + length - 1) / WINDOW_SIZE != window) {
+            // Regions crossing a window boundary are mapped on their own
+            return map(offset, length);
+        }
+
+        MappedByteBuffer mapping = windows.get(window);
+        if (mapping == null) {
+            mapping = map(window * WINDOW_SIZE, WINDOW_SIZE);
+            windows.put(window, mapping);
+        }
+        ByteBuffer slice = mapping.duplicate();
+        int position = (int) (offset - window * WINDOW_SIZE);
+        slice.position(position).limit(position + (int) length);
+        return slice.slice();
+    }
+
+    /**
+     * Reads the given mapped region into memory by touching every page.
+     */
+    static void touch(ByteBuffer buffer) {
+        byte sum = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i += PAGE_SIZE) {
+            sum ^= buffer.get(i);
+        }
+        sink = sum;
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(length, channel.size() - offset));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends audio at real-time pace in small frames, like a device streaming from its microphone.
+ * <p>
+ * The WAV header is sent immediately, the audio data afterwards frame by frame, each frame not before the time it
+ * would have been recorded. Every frame is flushed, so it leaves the client as its own chunk. The pace is taken from
+ * the header of the audio.
+ */
+public class PacedAudioPayload implements AudioPayload {
+    private static final int FRAME_MILLIS = 20;
+
+    private final AudioPayload delegate;
+    private volatile long endOfSpeechNanos;
+    private volatile long audioMillis;
+
+    public PacedAudioPayload(AudioPayload delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long getLength() {
+        return delegate.getLength();
+    }
+
+    @Override
+    public WavHeader getHeader() {
+        return delegate.getHeader();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        PacingOutputStream pacing = new PacingOutputStream(out, getHeader());
+        delegate.writeTo(pacing);
+        pacing.finish();
+        endOfSpeechNanos = System.nanoTime();
+        audioMillis = pacing.getDataSent() * 1000 / getHeader().getByteRate();
+    }
+
+    /**
+     * @return Time the last frame was sent, from {@link System#nanoTime()}, or 0 if not sent yet.
+     */
+    public long getEndOfSpeechNanos() {
+        return endOfSpeechNanos;
+    }
+
+    /**
+     * @return Duration of the sent audio at real-time pace in milliseconds, or 0 if not sent yet.
+     */
+    public long getAudioMillis() {
+        return audioMillis;
+    }
+
+    private static class PacingOutputStream extends FilterOutputStream {
+        private final int bytesPerSecond;
+        private final byte[] frame;
+        private int frameLength;
+        private long headerRemaining;
+        private long dataSent;
+        private long startNanos;
+
+        PacingOutputStream(OutputStream out, WavHeader header) {
+            super(out);
+            this.bytesPerSecond = header.getByteRate();
+            this.headerRemaining = header.getDataOffset();
+            // Frames are whole samples of all channels
+            int frameSize = Math.max(1, header.getFrameSize());
+            this.frame = new byte[Math.max(frameSize, bytesPerSecond * FRAME_MILLIS / 1000 / frameSize * frameSize)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (headerRemaining > 0) {
+                int header = (int) Math.min(headerRemaining, len);
+                out.write(b, off, header);
+                out.flush();
+                headerRemaining -= header;
+                off += header;
+                len -= header;
+                startNanos = System.nanoTime();
+            }
+
+            while (len > 0) {
+                int n = Math.min(len, frame.length - frameLength);
+                System.arraycopy(b, off, frame, frameLength, n);
+                frameLength += n;
+                off += n;
+                len -= n;
+                if (frameLength == frame.length) {
+                    sendFrame();
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            // Frames are flushed when they are due
+        }
+
+        void finish() throws IOException {
+            if (frameLength > 0) {
+                sendFrame();
+            }
+        }
+
+        long getDataSent() {
+            return dataSent;
+        }
+
+        private void sendFrame() throws IOException {
+            long due = startNanos + TimeUnit.SECONDS.toNanos(dataSent) / bytesPerSecond;
+            sleepUntil(due);
+            out.write(frame, 0, frameLength);
+            out.flush();
+            dataSent += frameLength;
+            frameLength = 0;
+        }
+
+        private static void sleepUntil(long deadline) throws InterruptedIOException {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Interrupted while pacing audio");
+                }
+            }
+        }
+    }
+}
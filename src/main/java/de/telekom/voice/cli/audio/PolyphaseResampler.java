@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+
+/**
+ * Streaming sample rate converter for rational ratios.
+ * <p>
+ * The input is conceptually upsampled by {@code up}, low-pass filtered with a windowed-sinc filter and downsampled by
+ * {@code down}. The filter is split into {@code up} phases, so only the non-zero input samples are multiplied and only
+ * the kept output samples are computed. Memory is bounded by the filter, only the last {@link #taps} input samples are
+ * kept.
+ */
+final class PolyphaseResampler {
+    /**
+     * Upper bound for the number of filter phases, which limits the filter size for odd rate ratios.
+     */
+    static final int MAX_PHASES = 1024;
+
+    /**
+     * Filter length in input samples on each side of the center, for ratios up to 1.
+     */
+    private static final int HALF_LENGTH = 16;
+
+    /**
+     * Cutoff relative to the lower of both Nyquist frequencies, leaving room for the transition band.
+     */
+    private static final double ROLLOFF = 0.92;
+
+    interface SampleSink {
+        void accept(float sample) throws IOException;
+    }
+
+    private final int up;
+    private final int down;
+    private final int taps;
+    private final long delay;
+    private final long outputLength;
+    /**
+     * Filter coefficients by phase, {@code coefficients[phase * taps + j]}.
+     */
+    private final float[] coefficients;
+    private final float[] history;
+    private long inputCount;
+    private long outputCount;
+
+    /**
+     * @param inputRate   Input sample rate.
+     * @param outputRate  Output sample rate.
+     * @param inputLength Number of input samples, which determines the number of output samples.
+     */
+    PolyphaseResampler(int inputRate, int outputRate, long inputLength) {
+        int gcd = gcd(inputRate, outputRate);
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+        if (up > MAX_PHASES) {
+            throw new IllegalArgumentException("Unsupported ratio " + inputRate + ":" + outputRate);
+        }
+
+        this.taps = 2 * (int) Math.ceil(HALF_LENGTH * Math.max(up, down) / (double) up);
+        this.coefficients = designFilter(up, down, taps);
+        this.history = new float[taps];
+        this.delay = (up * (long) taps - 2) / 2;
+        this.outputLength = outputLength(inputRate, outputRate, inputLength);
+    }
+
+    /**
+     * @return Number of output samples for the given number of input samples.
+     */
+    static long outputLength(int inputRate, int outputRate, long inputLength) {
+        int gcd = gcd(inputRate, outputRate);
+        long up = outputRate / gcd;
+        long down = inputRate / gcd;
+        return (inputLength * up + down - 1) / down;
+    }
+
+    void push(float sample, SampleSink sink) throws IOException {
+        history[(int) (inputCount % taps)] = sample;
+        inputCount++;
+
+        while (outputCount < outputLength) {
+            long position = outputCount * down + delay;
+            long newest = position / up;
+            if (newest >= inputCount) {
+                return;
+            }
+
+            int offset = (int) (position % up) * taps;
+            float sum = 0;
+            for (int j = 0; j < taps && newest - j >= 0; j++) {
+                sum += coefficients[offset + j] * history[(int) ((newest - j) % taps)];
+            }
+            sink.accept(sum);
+            outputCount++;
+        }
+    }
+
+    /**
+     * Emits the remaining output samples, which depend on input samples beyond the end.
+     */
+    void finish(SampleSink sink) throws IOException {
+        while (outputCount < outputLength) {
+            push(0, sink);
+        }
+    }
+
+    private static float[] designFilter(int up, int down, int taps) {
+        // An odd number of coefficients centers the filter on a sample, so the output isn't shifted; the last
+        // coefficient of the last phase stays zero
+        int length = up * taps - 1;
+        double cutoff = ROLLOFF * 0.5 / Math.max(up, down);
+        double center = (length - 1) / 2.0;
+
+        float[] coefficients = new float[up * taps];
+        for (int n = 0; n < length; n++) {
+            double x = n - center;
+            double sinc = x == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * x) / (Math.PI * x);
+            double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * n / (length - 1)) + 0.08 * Math.cos(4 * Math.PI * n / (length - 1));
+            // Phase p holds the coefficients p, p + up, p + 2 up, ...; the gain compensates the inserted zeros
+            coefficients[(n % up) * taps + n / up] = (float) (sinc * window * up);
+        }
+        return coefficients;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
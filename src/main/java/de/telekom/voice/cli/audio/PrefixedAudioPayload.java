@@ -0,0 +1,147 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sends a shared clip, e.g. the wake-up word, followed by the actual audio as a single WAV file.
+ * <p>
+ * The audio data of both payloads is written one after the other behind a new header, instead of concatenating them
+ * into a new buffer. Audio held in buffers is written straight from its buffer, other payloads are written with their
+ * header skipped.
+ */
+public class PrefixedAudioPayload implements AudioPayload {
+    private final AudioPayload prefix;
+    private final AudioPayload audio;
+    private final WavHeader header;
+
+    /**
+     * @param prefix Audio sent first, must be in the supported format and of known length.
+     * @param audio  Audio sent after the prefix, must be in the supported format.
+     */
+    public PrefixedAudioPayload(AudioPayload prefix, AudioPayload audio) {
+        WavHeader prefixHeader = prefix.getHeader();
+        WavHeader audioHeader = audio.getHeader();
+        if (!prefixHeader.isSupported() || !audioHeader.isSupported()) {
+            throw new IllegalArgumentException("Only audio in the supported format can be joined, got "
+                    + prefixHeader.describe() + " and " + audioHeader.describe());
+        }
+        if (!prefixHeader.isLengthKnown()) {
+            throw new IllegalArgumentException("Length of the prefix must be known");
+        }
+
+        this.prefix = prefix;
+        this.audio = audio;
+        this.header = WavHeader.pcm(WavHeader.SUPPORTED_SAMPLE_RATE, WavHeader.SUPPORTED_BITS_PER_SAMPLE, WavHeader.SUPPORTED_CHANNELS,
+                audioHeader.isLengthKnown() ? prefixHeader.getDataLength() + audioHeader.getDataLength() : WavHeader.UNKNOWN_LENGTH);
+    }
+
+    @Override
+    public long getLength() {
+        return header.isLengthKnown() ? header.getDataOffset() + header.getDataLength() : -1;
+    }
+
+    @Override
+    public WavHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return Duration of the prefix in milliseconds.
+     */
+    public long getPrefixMillis() {
+        return prefix.getHeader().getDurationMillis();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        write(ByteBuffer.wrap(header.encode()), target);
+        writeData(prefix, out, target);
+        writeData(audio, out, target);
+    }
+
+    private static void writeData(AudioPayload payload, OutputStream out, WritableByteChannel target) throws IOException {
+        if (payload instanceof ByteBufferAudioPayload) {
+            write(((ByteBufferAudioPayload) payload).getData(), target);
+        } else {
+            payload.writeTo(new DataOutputStream(out, payload.getHeader()));
+        }
+    }
+
+    private static void write(ByteBuffer source, WritableByteChannel target) throws IOException {
+        while (source.hasRemaining()) {
+            target.write(source);
+        }
+    }
+
+    /**
+     * Passes only the data chunk of a WAV file through.
+     */
+    private static final class DataOutputStream extends FilterOutputStream {
+        private long skip;
+        private long remaining;
+
+        DataOutputStream(OutputStream out, WavHeader header) {
+            super(out);
+            this.skip = header.getDataOffset();
+            this.remaining = header.isLengthKnown() ? header.getDataLength() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int skipped = (int) Math.min(skip, len);
+            skip -= skipped;
+            int length = (int) Math.min(remaining, len - skipped);
+            if (length > 0) {
+                out.write(b, off + skipped, length);
+                remaining -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream is still written to
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A corpus in an uncompressed tar archive. Members are stored contiguously, so they are served from mapped regions of
+ * the archive.
+ */
+final class TarCorpus extends ArchiveCorpus {
+    private volatile MappedArchive archive;
+
+    TarCorpus(Path root, CodecRegistry codecs) {
+        super(root, codecs);
+        this.archive = new MappedArchive(root);
+    }
+
+    @Override
+    List<CorpusEntry> scan() throws IOException {
+        List<CorpusEntry> entries = new ArrayList<>();
+        try (TarFile tar = new TarFile(getRoot())) {
+            for (TarArchiveEntry member : tar.getEntries()) {
+                if (!member.isFile() || member.isSparse() || !isWavFile(member.getName())) {
+                    continue;
+                }
+                ByteBuffer content = archive.slice(member.getDataOffset(), member.getSize());
+                entries.add(index(member.getName(), member.getSize(), member.getModTime().getTime(), member.getDataOffset(), content));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    void reset() {
+        archive = new MappedArchive(getRoot());
+    }
+
+    @Override
+    public AudioPayload load(CorpusEntry entry) throws IOException {
+        return new ByteBufferAudioPayload(archive.slice(entry.getOffset(), entry.getSize()), entry.getHeader());
+    }
+
+    @Override
+    public AudioPayload preload(CorpusEntry entry) throws IOException {
+        ByteBuffer content = archive.slice(entry.getOffset(), entry.getSize());
+        MappedArchive.touch(content);
+        return new ByteBufferAudioPayload(content, entry.getHeader());
+    }
+}
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A corpus in a gzip compressed tar archive.
+ * <p>
+ * Compressed archives can't be read at an offset, so members are read from a stream which is kept open between loads.
+ * Loading the entries in archive order decompresses the archive once; loading an earlier entry restarts from the
+ * beginning.
+ */
+final class TarGzCorpus extends ArchiveCorpus {
+    @Nullable
+    private TarArchiveInputStream cursor;
+
+    TarGzCorpus(Path root, CodecRegistry codecs) {
+        super(root, codecs);
+    }
+
+    @Override
+    List<CorpusEntry> scan() throws IOException {
+        List<CorpusEntry> entries = new ArrayList<>();
+        try (TarArchiveInputStream tar = open()) {
+            TarArchiveEntry member;
+            while ((member = tar.getNextTarEntry()) != null) {
+                if (member.isFile() && isWavFile(member.getName())) {
+                    entries.add(index(member.getName(), member.getSize(), member.getModTime().getTime(), CorpusEntry.NOT_ADDRESSABLE, readStart(tar, member.getSize())));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean isRandomAccess() {
+        return false;
+    }
+
+    @Override
+    synchronized void reset() throws IOException {
+        closeCursor();
+    }
+
+    @Override
+    public synchronized AudioPayload load(CorpusEntry entry) throws IOException {
+        boolean restarted = cursor == null;
+        while (true) {
+            if (cursor == null) {
+                cursor = open();
+            }
+
+            TarArchiveEntry member;
+            while ((member = cursor.getNextTarEntry()) != null) {
+                if (member.isFile() && member.getName().equals(entry.getPath())) {
+                    return readFully(cursor, entry);
+                }
+            }
+
+            closeCursor();
+            if (restarted) {
+                throw new FileNotFoundException(entry.getPath() + " not found in " + getRoot());
+            }
+            restarted = true;
+        }
+    }
+
+    private TarArchiveInputStream open() throws IOException {
+        return new TarArchiveInputStream(new GzipCompressorInputStream(new BufferedInputStream(Files.newInputStream(getRoot())), true));
+    }
+
+    private void closeCursor() throws IOException {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Trims leading and trailing silence from audio while it is written, using the energy of short frames.
+ * <p>
+ * Frames before the first frame above the threshold are dropped, except for a short pre-roll. Silent frames after
+ * speech are held back until either speech continues, then they are written, or the audio ends, then they are dropped
+ * except for a short post-roll. At most {@link #MAX_PENDING_MILLIS} of silence are held back; longer pauses are
+ * written as far as they exceed this limit, so memory stays bounded. As the trimmed length isn't known in advance, the
+ * header carries {@link WavHeader#UNKNOWN_LENGTH}.
+ */
+public class TrimmingAudioPayload implements AudioPayload {
+    public static final double DEFAULT_THRESHOLD_DBFS = -40;
+
+    private static final int FRAME_MILLIS = 20;
+    private static final int PRE_ROLL_MILLIS = 200;
+    private static final int POST_ROLL_MILLIS = 300;
+    private static final int MAX_PENDING_MILLIS = 5000;
+
+    private final AudioPayload source;
+    private final WavHeader header;
+    private final double thresholdMeanSquare;
+    private volatile long sourceBytes;
+    private volatile long leadingBytes;
+    private volatile long trailingBytes;
+
+    /**
+     * @param source        Audio in the format supported by the voice platform, see {@link WavHeader#isSupported()}.
+     * @param thresholdDbfs Frames with an RMS level above this level in dB relative to full scale are speech.
+     */
+    public TrimmingAudioPayload(AudioPayload source, double thresholdDbfs) {
+        WavHeader sourceHeader = source.getHeader();
+        if (!sourceHeader.isSupported()) {
+            throw new IllegalArgumentException("Can't trim audio format " + sourceHeader.describe());
+        }
+        this.source = source;
+        this.header = WavHeader.pcm(sourceHeader.getSampleRate(), sourceHeader.getBitsPerSample(), sourceHeader.getChannels(), WavHeader.UNKNOWN_LENGTH);
+        double fullScale = -(double) Short.MIN_VALUE;
+        this.thresholdMeanSquare = fullScale * fullScale * Math.pow(10, thresholdDbfs / 10);
+    }
+
+    @Override
+    public long getLength() {
+        return -1;
+    }
+
+    @Override
+    public WavHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(header.encode());
+        TrimmingOutputStream trimming = new TrimmingOutputStream(out, source.getHeader());
+        source.writeTo(trimming);
+        trimming.finish();
+        sourceBytes = trimming.sourceBytes;
+        leadingBytes = trimming.leadingBytes;
+        trailingBytes = trimming.trailingBytes;
+    }
+
+    /**
+     * @return Bytes of leading silence not sent by the last write.
+     */
+    public long getLeadingBytes() {
+        return leadingBytes;
+    }
+
+    /**
+     * @return Bytes of trailing silence not sent by the last write.
+     */
+    public long getTrailingBytes() {
+        return trailingBytes;
+    }
+
+    /**
+     * @return Bytes of audio data of the source, as of the last write.
+     */
+    public long getSourceBytes() {
+        return sourceBytes;
+    }
+
+    /**
+     * @return Duration of the audio not sent by the last write.
+     */
+    public long getTrimmedMillis() {
+        return (leadingBytes + trailingBytes) * 1000 / header.getByteRate();
+    }
+
+    /**
+     * Receives the complete source file and writes the audio data frame by frame, without leading and trailing
+     * silence.
+     */
+    private class TrimmingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final WavHeader sourceHeader;
+        private final byte[] frame;
+        private final FrameQueue preRoll;
+        private final FrameQueue pending;
+        private final int postRollFrames;
+        private boolean speech;
+        private long position;
+        private int frameLength;
+        private long sourceBytes;
+        private long leadingBytes;
+        private long trailingBytes;
+
+        TrimmingOutputStream(OutputStream out, WavHeader sourceHeader) {
+            this.out = out;
+            this.sourceHeader = sourceHeader;
+            int frameSize = sourceHeader.getByteRate() * FRAME_MILLIS / 1000;
+            this.frame = new byte[frameSize];
+            this.preRoll = new FrameQueue(PRE_ROLL_MILLIS / FRAME_MILLIS, frameSize);
+            this.pending = new FrameQueue(MAX_PENDING_MILLIS / FRAME_MILLIS, frameSize);
+            this.postRollFrames = POST_ROLL_MILLIS / FRAME_MILLIS;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long dataStart = sourceHeader.getDataOffset();
+            long dataEnd = dataStart + sourceHeader.getDataLength();
+
+            // Only the audio data is passed on, the header is replaced
+            int start = (int) (Math.max(position, dataStart) - position);
+            int end = (int) (Math.min(position + len, dataEnd) - position);
+            while (start < end) {
+                int n = Math.min(end - start, frame.length - frameLength);
+                System.arraycopy(b, off + start, frame, frameLength, n);
+                frameLength += n;
+                start += n;
+                if (frameLength == frame.length) {
+                    processFrame();
+                }
+            }
+            position += len;
+        }
+
+        void finish() throws IOException {
+            if (frameLength > 0) {
+                processFrame();
+            }
+            if (speech) {
+                int kept = Math.min(postRollFrames, pending.size());
+                for (int i = 0; i < kept; i++) {
+                    pending.writeOldest(out);
+                }
+                trailingBytes = pending.clear();
+            } else {
+                // No speech at all, send the last moment rather than nothing
+                preRoll.writeAll(out);
+            }
+        }
+
+        private void processFrame() throws IOException {
+            sourceBytes += frameLength;
+            boolean loud = isSpeech(frame, frameLength);
+            if (!speech) {
+                if (loud) {
+                    speech = true;
+                    preRoll.writeAll(out);
+                    out.write(frame, 0, frameLength);
+                } else {
+                    if (preRoll.isFull()) {
+                        leadingBytes += preRoll.dropOldest();
+                    }
+                    preRoll.add(frame, frameLength);
+                }
+            } else if (loud) {
+                pending.writeAll(out);
+                out.write(frame, 0, frameLength);
+            } else {
+                if (pending.isFull()) {
+                    pending.writeOldest(out);
+                }
+                pending.add(frame, frameLength);
+            }
+            frameLength = 0;
+        }
+
+        private boolean isSpeech(byte[] frame, int length) {
+            int samples = length / 2;
+            if (samples == 0) {
+                return false;
+            }
+            double sum = 0;
+            for (int i = 0; i + 1 < length; i += 2) {
+                int sample = (short) ((frame[i] & 0xFF) | frame[i + 1] << 8);
+                sum += (double) sample * sample;
+            }
+            return sum / samples > thresholdMeanSquare;
+        }
+    }
+
+    /**
+     * Bounded FIFO of frames in a ring buffer, copying the frames in.
+     */
+    private static class FrameQueue {
+        private final byte[] buffer;
+        private final int[] lengths;
+        private final int frameSize;
+        private int head;
+        private int size;
+
+        FrameQueue(int capacity, int frameSize) {
+            this.buffer = new byte[capacity * frameSize];
+            this.lengths = new int[capacity];
+            this.frameSize = frameSize;
+        }
+
+        boolean isFull() {
+            return size == lengths.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long bytes() {
+            long bytes = 0;
+            for (int i = 0; i < size; i++) {
+                bytes += lengths[(head + i) % lengths.length];
+            }
+            return bytes;
+        }
+
+        void add(byte[] frame, int length) {
+            int index = (head + size) % lengths.length;
+            System.arraycopy(frame, 0, buffer, index * frameSize, length);
+            lengths[index] = length;
+            size++;
+        }
+
+        void writeOldest(OutputStream out) throws IOException {
+            out.write(buffer, head * frameSize, lengths[head]);
+            dropOldest();
+        }
+
+        int dropOldest() {
+            int length = lengths[head];
+            head = (head + 1) % lengths.length;
+            size--;
+            return length;
+        }
+
+        void writeAll(OutputStream out) throws IOException {
+            while (size > 0) {
+                writeOldest(out);
+            }
+        }
+
+        /**
+         * @return Bytes dropped.
+         */
+        long clear() {
+            long bytes = bytes();
+            head = 0;
+            size = 0;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Format and position of the audio data of a RIFF/WAVE file.
+ * <p>
+ * The header is parsed in place from a buffer, e.g. a memory-mapped file, without copying the audio data.
+ */
+public final class WavHeader {
+    public static final int FORMAT_PCM = 1;
+    public static final int FORMAT_IEEE_FLOAT = 3;
+
+    /**
+     * Length of a header as written by {@link #encode()}.
+     */
+    public static final int CANONICAL_LENGTH = 44;
+
+    /**
+     * Data length of audio whose length isn't known before it is written completely, e.g. trimmed audio.
+     */
+    public static final long UNKNOWN_LENGTH = -1;
+
+    /**
+     * Format accepted by the voice platform - see doc/howto-create-wav.md.
+     */
+    public static final int SUPPORTED_SAMPLE_RATE = 16000;
+    public static final int SUPPORTED_BITS_PER_SAMPLE = 16;
+    public static final int SUPPORTED_CHANNELS = 1;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /**
+     * Number of bytes read from the beginning of a file to parse its header.
+     */
+    static final int PROBE_LENGTH = 64 * 1024;
+
+    private static final int RIFF = 0x46464952; // "RIFF", little endian
+    private static final int WAVE = 0x45564157; // "WAVE"
+    private static final int FMT = 0x20746d66; // "fmt "
+    private static final int DATA = 0x61746164; // "data"
+    private static final int CHUNK_HEADER_LENGTH = 8;
+    private static final int RIFF_HEADER_LENGTH = 12;
+    /**
+     * The RIFF chunk length is 32 bit, a file can't be longer than that plus the chunk header.
+     */
+    private static final long MAX_FILE_LENGTH = 0xFFFFFFFFL + CHUNK_HEADER_LENGTH;
+
+    private final int audioFormat;
+    private final int channels;
+    private final int sampleRate;
+    private final int bitsPerSample;
+    private final long dataOffset;
+    private final long dataLength;
+
+    @JsonCreator
+    public WavHeader(@JsonProperty("audioFormat") int audioFormat,
+                     @JsonProperty("channels") int channels,
+                     @JsonProperty("sampleRate") int sampleRate,
+                     @JsonProperty("bitsPerSample") int bitsPerSample,
+                     @JsonProperty("dataOffset") long dataOffset,
+                     @JsonProperty("dataLength") long dataLength) {
+        this.audioFormat = audioFormat;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    /**
+     * Creates a canonical header for PCM audio, with the data directly following the header.
+     *
+     * @param sampleRate    Sample rate in Hz.
+     * @param bitsPerSample Bits per sample.
+     * @param channels      Number of channels.
+     * @param dataLength    Length of the audio data in bytes, or {@link #UNKNOWN_LENGTH}.
+     * @return Header.
+     */
+    public static WavHeader pcm(int sampleRate, int bitsPerSample, int channels, long dataLength) {
+        return new WavHeader(FORMAT_PCM, channels, sampleRate, bitsPerSample, CANONICAL_LENGTH, dataLength);
+    }
+
+    /**
+     * Parses the header from the given buffer. The position of the buffer is not changed.
+     *
+     * @param buffer Buffer containing the complete file, starting at its position.
+     * @return Header.
+     * @throws InvalidAudioException If the buffer doesn't start with a valid RIFF/WAVE header.
+     */
+    public static WavHeader parse(ByteBuffer buffer) throws InvalidAudioException {
+        return parse(buffer, buffer.remaining());
+    }
+
+    /**
+     * Parses the header from the beginning of a file. The position of the buffer is not changed.
+     *
+     * @param buffer Buffer containing the beginning of the file, at least up to the start of the data chunk,
+     *               starting at its position.
+     * @param length Length of the complete file.
+     * @return Header.
+     * @throws InvalidAudioException If the buffer doesn't start with a valid RIFF/WAVE header.
+     */
+    public static WavHeader parse(ByteBuffer buffer, long length) throws InvalidAudioException {
+        ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < RIFF_HEADER_LENGTH || in.getInt(0) != RIFF || in.getInt(8) != WAVE) {
+            throw new InvalidAudioException("Not a RIFF/WAVE file");
+        }
+
+        int audioFormat = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int bitsPerSample = 0;
+
+        int position = RIFF_HEADER_LENGTH;
+        while (position + CHUNK_HEADER_LENGTH <= in.limit()) {
+            int chunkId = in.getInt(position);
+            long chunkLength = Integer.toUnsignedLong(in.getInt(position + 4));
+            int body = position + CHUNK_HEADER_LENGTH;
+
+            if (chunkId == FMT) {
+                if (chunkLength < 16 || body + 16 > in.limit()) {
+                    throw new InvalidAudioException("Truncated fmt chunk");
+                }
+                audioFormat = Short.toUnsignedInt(in.getShort(body));
+                channels = Short.toUnsignedInt(in.getShort(body + 2));
+                sampleRate = in.getInt(body + 4);
+                bitsPerSample = Short.toUnsignedInt(in.getShort(body + 14));
+                if (audioFormat == FORMAT_EXTENSIBLE && chunkLength >= 26 && body + 26 <= in.limit()) {
+                    // The first two bytes of the sub format GUID are the actual format
+                    audioFormat = Short.toUnsignedInt(in.getShort(body + 24));
+                }
+            } else if (chunkId == DATA) {
+                if (audioFormat == -1) {
+                    throw new InvalidAudioException("data chunk before fmt chunk");
+                }
+                // Streamed files may contain a placeholder length, so limit it to the actual length
+                long dataLength = Math.min(chunkLength, length - body);
+                return new WavHeader(audioFormat, channels, sampleRate, bitsPerSample, body, dataLength);
+            }
+
+            // Chunks are padded to an even length
+            long next = body + chunkLength + (chunkLength & 1);
+            if (next > in.limit()) {
+                break;
+            }
+            position = (int) next;
+        }
+        throw new InvalidAudioException("No data chunk found");
+    }
+
+    /**
+     * Parses the header of the given file. Only the first {@value #PROBE_LENGTH} bytes are read, however large the
+     * file is.
+     *
+     * @param file WAV file.
+     * @return Header.
+     * @throws IOException           If the file can't be read.
+     * @throws InvalidAudioException If the file isn't a valid RIFF/WAVE file or is too large to be one.
+     */
+    public static WavHeader read(Path file) throws IOException, InvalidAudioException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > MAX_FILE_LENGTH) {
+                throw new InvalidAudioException("File of " + length + " bytes is too large for RIFF/WAVE");
+            }
+            ByteBuffer start = ByteBuffer.allocate((int) Math.min(length, PROBE_LENGTH));
+            while (start.hasRemaining() && channel.read(start) >= 0) {
+                // Read until the probe is full or the file ends
+            }
+            start.flip();
+            return parse(start, length);
+        }
+    }
+
+    /**
+     * Encodes this header as canonical 44 byte header, consisting of the RIFF header, the fmt chunk and the header of
+     * the data chunk. An unknown length is encoded as maximum length, like streaming encoders do.
+     *
+     * @return Encoded header.
+     */
+    public byte[] encode() {
+        ByteBuffer out = ByteBuffer.allocate(CANONICAL_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        long maxLength = 0xFFFFFFFFL - (CANONICAL_LENGTH - CHUNK_HEADER_LENGTH);
+        int length = (int) (isLengthKnown() ? Math.min(dataLength, maxLength) : maxLength);
+        out.putInt(RIFF).putInt(length + CANONICAL_LENGTH - CHUNK_HEADER_LENGTH).putInt(WAVE);
+        out.putInt(FMT).putInt(16)
+                .putShort((short) audioFormat)
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(getByteRate())
+                .putShort((short) getFrameSize())
+                .putShort((short) bitsPerSample);
+        out.putInt(DATA).putInt(length);
+        return out.array();
+    }
+
+    /**
+     * @return True if the audio is PCM in the format accepted by the voice platform.
+     */
+    @JsonIgnore
+    public boolean isSupported() {
+        return audioFormat == FORMAT_PCM
+                && sampleRate == SUPPORTED_SAMPLE_RATE
+                && bitsPerSample == SUPPORTED_BITS_PER_SAMPLE
+                && channels == SUPPORTED_CHANNELS;
+    }
+
+    /**
+     * Checks that the audio can be sent to the voice platform as is.
+     *
+     * @throws InvalidAudioException If the format isn't supported, with a message describing actual and expected
+     *                               format.
+     */
+    public void checkSupported() throws InvalidAudioException {
+        if (!isSupported()) {
+            throw new InvalidAudioException(String.format("Unsupported audio format %s, expected %s", describe(),
+                    describe(FORMAT_PCM, SUPPORTED_SAMPLE_RATE, SUPPORTED_BITS_PER_SAMPLE, SUPPORTED_CHANNELS)));
+        }
+    }
+
+    /**
+     * @return Human readable description of the format, e.g. "PCM 16000 Hz 16 bit mono".
+     */
+    public String describe() {
+        return describe(audioFormat, sampleRate, bitsPerSample, channels);
+    }
+
+    private static String describe(int audioFormat, int sampleRate, int bitsPerSample, int channels) {
+        String format = audioFormat == FORMAT_PCM ? "PCM" : "format " + audioFormat;
+        String layout = channels == 1 ? "mono" : channels == 2 ? "stereo" : channels + " channels";
+        return String.format("%s %d Hz %d bit %s", format, sampleRate, bitsPerSample, layout);
+    }
+
+    public int getAudioFormat() {
+        return audioFormat;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * @return Offset of the audio data from the start of the file.
+     */
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    /**
+     * @return Length of the audio data in bytes, or {@link #UNKNOWN_LENGTH}.
+     */
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    @JsonIgnore
+    public boolean isLengthKnown() {
+        return dataLength != UNKNOWN_LENGTH;
+    }
+
+    /**
+     * @return Bytes per second of audio.
+     */
+    @JsonIgnore
+    public int getByteRate() {
+        return sampleRate * getFrameSize();
+    }
+
+    /**
+     * @return Bytes per sample of all channels.
+     */
+    @JsonIgnore
+    public int getFrameSize() {
+        return channels * ((bitsPerSample + 7) / 8);
+    }
+
+    /**
+     * @return Duration of the audio, or -1 if the length is unknown.
+     */
+    @JsonIgnore
+    public long getDurationMillis() {
+        if (!isLengthKnown()) {
+            return -1;
+        }
+        int byteRate = getByteRate();
+        return byteRate == 0 ? 0 : dataLength * 1000 / byteRate;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("audioFormat", audioFormat)
+                .append("channels", channels)
+                .append("sampleRate", sampleRate)
+                .append("bitsPerSample", bitsPerSample)
+                .append("dataOffset", dataOffset)
+                .append("dataLength", dataLength)
+                .toString();
+    }
+}
@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.audio;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import javax.annotation.Nullable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+/**
+ * A corpus in a zip archive. Stored members are served from mapped regions of the archive, deflated members are
+ * inflated when loaded.
+ */
+final class ZipCorpus extends ArchiveCorpus {
+    private volatile MappedArchive archive;
+    @Nullable
+    private ZipFile zipFile;
+
+    ZipCorpus(Path root, CodecRegistry codecs) {
+        super(root, codecs);
+        this.archive = new MappedArchive(root);
+    }
+
+    @Override
+    List<CorpusEntry> scan() throws IOException {
+        List<CorpusEntry> entries = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(getRoot().toFile())) {
+            Enumeration<ZipArchiveEntry> members = zip.getEntriesInPhysicalOrder();
+            while (members.hasMoreElements()) {
+                ZipArchiveEntry member = members.nextElement();
+                if (member.isDirectory() || !isWavFile(member.getName())) {
+                    continue;
+                }
+
+                if (member.getMethod() == ZipEntry.STORED) {
+                    ByteBuffer content = archive.slice(member.getDataOffset(), member.getSize());
+                    entries.add(index(member.getName(), member.getSize(), member.getTime(), member.getDataOffset(), content));
+                } else {
+                    try (InputStream in = zip.getInputStream(member)) {
+                        entries.add(index(member.getName(), member.getSize(), member.getTime(), CorpusEntry.NOT_ADDRESSABLE, readStart(in, member.getSize())));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    synchronized void reset() throws IOException {
+        archive = new MappedArchive(getRoot());
+        if (zipFile != null) {
+            zipFile.close();
+            zipFile = null;
+        }
+    }
+
+    @Override
+    public AudioPayload load(CorpusEntry entry) throws IOException {
+        if (entry.getOffset() != CorpusEntry.NOT_ADDRESSABLE) {
+            return new ByteBufferAudioPayload(archive.slice(entry.getOffset(), entry.getSize()), entry.getHeader());
+        }
+
+        ZipFile zip = zipFile();
+        ZipArchiveEntry member = zip.getEntry(entry.getPath());
+        if (member == null) {
+            throw new FileNotFoundException(entry.getPath() + " not found in " + getRoot());
+        }
+        try (InputStream in = zip.getInputStream(member)) {
+            return readFully(in, entry);
+        }
+    }
+
+    @Override
+    public AudioPayload preload(CorpusEntry entry) throws IOException {
+        AudioPayload payload = load(entry);
+        if (entry.getOffset() != CorpusEntry.NOT_ADDRESSABLE) {
+            MappedArchive.touch(archive.slice(entry.getOffset(), entry.getSize()));
+        }
+        return payload;
+    }
+
+    /**
+     * The central directory is read once and kept for inflating members.
+     */
+    private synchronized ZipFile zipFile() throws IOException {
+        if (zipFile == null) {
+            zipFile = new ZipFile(getRoot().toFile());
+        }
+        return zipFile;
+    }
+}
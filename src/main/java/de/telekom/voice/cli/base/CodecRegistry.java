@@ -0,0 +1,97 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.base;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the single {@link ObjectMapper} of the client and a reader and a writer per type.
+ * <p>
+ * Every mapper builds its own caches, and resolving the (de-)serializers of a type is expensive, especially for Kotlin
+ * DTOs. Readers and writers are immutable and thread-safe, so they are resolved once and shared. Types which are
+ * {@link #warmUp(Type...) warmed up} don't even pay for this on their first use.
+ */
+public final class CodecRegistry {
+    private final ObjectMapper mapper = ObjectMapperFactory.create();
+    private final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @return Reader for the given type with its deserializer resolved.
+     */
+    public ObjectReader reader(Type type) {
+        // computeIfAbsent locks even if the reader exists
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+        }
+        return reader;
+    }
+
+    /**
+     * @return Writer for the given type with its serializer resolved.
+     */
+    public ObjectWriter writer(Type type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, t -> mapper.writerFor(mapper.constructType(t)));
+        }
+        return writer;
+    }
+
+    /**
+     * @return Factory for streaming parsers and generators.
+     */
+    public JsonFactory getFactory() {
+        return mapper.getFactory();
+    }
+
+    /**
+     * @return Writer which indents its output, for showing JSON to the user.
+     */
+    public ObjectWriter prettyWriter() {
+        return prettyWriter;
+    }
+
+    /**
+     * Resolves the readers and writers of the given types in advance.
+     */
+    public void warmUp(Type... types) {
+        for (Type type : types) {
+            reader(type);
+            writer(type);
+        }
+    }
+}
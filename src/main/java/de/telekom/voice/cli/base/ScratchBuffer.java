@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer which is kept per thread and reused, so request and response bodies on hot paths don't need
+ * new arrays for every request. The content is only valid until the buffer of the same thread is used again.
+ */
+public final class ScratchBuffer extends OutputStream {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Buffers which grew larger are dropped instead of being kept for the lifetime of the thread.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final ThreadLocal<ScratchBuffer> BUFFERS = ThreadLocal.withInitial(ScratchBuffer::new);
+
+    private byte[] array = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    private ScratchBuffer() {
+    }
+
+    /**
+     * @return Empty buffer of the calling thread, its previous content is discarded.
+     */
+    public static ScratchBuffer forCurrentThread() {
+        ScratchBuffer buffer = BUFFERS.get();
+        if (buffer.array.length > MAX_RETAINED_CAPACITY) {
+            buffer.array = new byte[INITIAL_CAPACITY];
+        }
+        buffer.length = 0;
+        return buffer;
+    }
+
+    /**
+     * @return Backing array, only the first {@link #getLength()} bytes are content.
+     */
+    public byte[] getArray() {
+        return array;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Appends the remaining content of the given stream.
+     *
+     * @param in Stream, not closed.
+     * @return This buffer.
+     * @throws IOException If reading fails.
+     */
+    public ScratchBuffer readFrom(InputStream in) throws IOException {
+        int read;
+        while (true) {
+            if (length == array.length) {
+                grow(length + 1);
+            }
+            read = in.read(array, length, array.length - length);
+            if (read < 0) {
+                return this;
+            }
+            length += read;
+        }
+    }
+
+    /**
+     * @return Stream over the content.
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(array, 0, length);
+    }
+
+    @Override
+    public void write(int b) {
+        if (length == array.length) {
+            grow(length + 1);
+        }
+        array[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (length + len > array.length) {
+            grow(length + len);
+        }
+        System.arraycopy(b, off, array, length, len);
+        length += len;
+    }
+
+    private void grow(int minCapacity) {
+        array = Arrays.copyOf(array, Math.max(minCapacity, array.length * 2));
+    }
+}
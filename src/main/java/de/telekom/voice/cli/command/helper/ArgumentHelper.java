@@ -27,10 +27,23 @@
 package de.telekom.voice.cli.command.helper;
 
 import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.load.Stage;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ArgumentHelper {
+    /**
+     * Matches durations like `500ms`, `30s`, `5m` or `1h`.
+     */
+    private static final Pattern DURATION = Pattern.compile("(\\d+)(ms|s|m|h)");
+
     @Nullable
     public Integer parseInteger(Console console, String input) {
         try {
@@ -40,4 +53,120 @@ public class ArgumentHelper {
             return null;
         }
     }
+
+    @Nullable
+    public Double parseDouble(Console console, String input) {
+        try {
+            return Double.parseDouble(input.trim());
+        } catch (NumberFormatException e) {
+            console.printLine("Unable to parse '" + input + "' to number");
+            return null;
+        }
+    }
+
+    public boolean isDuration(String input) {
+        return DURATION.matcher(input.trim()).matches();
+    }
+
+    @Nullable
+    public Duration parseDuration(Console console, String input) {
+        Matcher matcher = DURATION.matcher(input.trim());
+        if (!matcher.matches()) {
+            console.printLine("Unable to parse '" + input + "' to duration, use e.g. 500ms, 30s, 5m or 1h");
+            return null;
+        }
+
+        try {
+            long amount = Long.parseLong(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "ms":
+                    return Duration.ofMillis(amount);
+                case "s":
+                    return Duration.ofSeconds(amount);
+                case "m":
+                    return Duration.ofMinutes(amount);
+                default:
+                    return Duration.ofHours(amount);
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            console.printLine("Duration '" + input + "' is too long");
+            return null;
+        }
+    }
+
+    /**
+     * Parses load stages like `30s:100,60s:100,30s:0`, each stage being [duration]:[target requests per second].
+     */
+    @Nullable
+    public List<Stage> parseStages(Console console, String input) {
+        List<Stage> stages = new ArrayList<>();
+        for (String part : input.split(",")) {
+            String[] stage = part.split(":");
+            if (stage.length != 2) {
+                console.printLine("Unable to parse stage '" + part + "', use [duration]:[requests per second], e.g. 30s:100");
+                return null;
+            }
+
+            Duration duration = parseDuration(console, stage[0]);
+            if (duration == null) {
+                return null;
+            }
+            double rate;
+            try {
+                rate = Double.parseDouble(stage[1].trim());
+            } catch (NumberFormatException e) {
+                console.printLine("Unable to parse '" + stage[1] + "' to requests per second");
+                return null;
+            }
+            if (rate < 0) {
+                console.printLine("Requests per second must not be negative");
+                return null;
+            }
+            stages.add(new Stage(duration, rate));
+        }
+        return stages;
+    }
+
+    /**
+     * Splits leading flags like `--realtime` or `--parallel=4` from the remaining arguments.
+     */
+    public FlaggedArguments parseFlags(String input) {
+        Map<String, String> flags = new HashMap<>();
+        String remainder = input.trim();
+        while (remainder.startsWith(FlaggedArguments.FLAG_PREFIX)) {
+            String[] parts = remainder.split(" ", 2);
+            String[] flag = parts[0].substring(FlaggedArguments.FLAG_PREFIX.length()).split("=", 2);
+            flags.put(flag[0], flag.length > 1 ? flag[1] : "");
+            remainder = parts.length > 1 ? parts[1].trim() : "";
+        }
+        return new FlaggedArguments(flags, remainder);
+    }
+
+    public static final class FlaggedArguments {
+        static final String FLAG_PREFIX = "--";
+
+        private final Map<String, String> flags;
+        private final String remainder;
+
+        FlaggedArguments(Map<String, String> flags, String remainder) {
+            this.flags = flags;
+            this.remainder = remainder;
+        }
+
+        public boolean hasFlag(String name) {
+            return flags.containsKey(name);
+        }
+
+        @Nullable
+        public String getFlagValue(String name) {
+            return flags.get(name);
+        }
+
+        /**
+         * @return Arguments after the flags.
+         */
+        public String getRemainder() {
+            return remainder;
+        }
+    }
 }
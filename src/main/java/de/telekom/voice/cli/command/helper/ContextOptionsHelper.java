@@ -27,9 +27,9 @@
 package de.telekom.voice.cli.command.helper;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import de.telekom.voice.cli.Context;
-import de.telekom.voice.cli.base.ObjectMapperFactory;
+import de.telekom.voice.cli.base.CodecRegistry;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -37,8 +37,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 public class ContextOptionsHelper {
-    private final ObjectMapper mapper = ObjectMapperFactory.create()
-            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ObjectReader reader;
+
+    public ContextOptionsHelper(CodecRegistry codecs) {
+        this.reader = codecs.reader(Context.Options.class).with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
 
     public Context.Options loadFromFile(Path file) {
         if (!Files.exists(file)) {
@@ -46,7 +49,7 @@ public class ContextOptionsHelper {
         }
 
         try (InputStream stream = Files.newInputStream(file)) {
-            return mapper.readValue(stream, Context.Options.class);
+            return reader.readValue(stream);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to load context options from file " + file.toAbsolutePath(), e);
         }
@@ -26,27 +26,71 @@
 
 package de.telekom.voice.cli.command.helper;
 
+import de.telekom.voice.cli.audio.AudioCache;
+import de.telekom.voice.cli.audio.AudioPayload;
+import de.telekom.voice.cli.audio.ConvertingAudioPayload;
+import de.telekom.voice.cli.audio.InvalidAudioException;
+import de.telekom.voice.cli.audio.WavHeader;
 import de.telekom.voice.cli.cli.Console;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 public class FileHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileHelper.class);
 
+    private final AudioCache audioCache;
+
+    public FileHelper(AudioCache audioCache) {
+        this.audioCache = audioCache;
+    }
+
+    /**
+     * Opens the given audio file for streaming. Small files are served from the {@link AudioCache}, larger ones are
+     * not read until the payload is written.
+     *
+     * @param file    Audio file.
+     * @param convert Whether audio in other formats is converted into the supported format while it is sent.
+     * @param console Console for error messages.
+     * @return Payload, or null if the file can't be read or isn't in a format supported by the voice platform.
+     */
     @Nullable
-    public byte[] readFile(Path file, Console console) {
+    public AudioPayload openAudio(Path file, boolean convert, Console console) {
+        AudioPayload audio;
         try {
-            return Files.readAllBytes(file);
+            audio = audioCache.load(file);
+        } catch (InvalidAudioException e) {
+            printInvalidAudio(file, e, console);
+            return null;
         } catch (IOException e) {
             LOGGER.error("Failed to read file {}", file.toAbsolutePath(), e);
             console.printFormat("Failed to read audio file %s", file.toAbsolutePath());
             console.printLine();
             return null;
         }
+
+        WavHeader header = audio.getHeader();
+        try {
+            if (convert && !header.isSupported()) {
+                LOGGER.debug("Converting {} from {}", file, header.describe());
+                return new ConvertingAudioPayload(audio);
+            }
+            header.checkSupported();
+            return audio;
+        } catch (InvalidAudioException e) {
+            printInvalidAudio(file, e, console);
+            if (!convert && ConvertingAudioPayload.isConvertible(header)) {
+                console.printLine("Use --convert to convert it on the fly");
+            }
+            return null;
+        }
+    }
+
+    private void printInvalidAudio(Path file, InvalidAudioException e, Console console) {
+        console.printFormat("Invalid audio file %s: %s", file.toAbsolutePath(), e.getMessage());
+        console.printLine();
     }
 }
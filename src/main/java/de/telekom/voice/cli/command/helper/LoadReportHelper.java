@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.helper;
+
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.load.LatencyStatistics;
+import de.telekom.voice.cli.load.LoadResult;
+import de.telekom.voice.cli.load.RealTimeFactors;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Helper for printing the results of load runs.
+ */
+public class LoadReportHelper {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    public void printReport(LoadResult result, Console console) {
+        console.printFormat("Virtual users: %d, elapsed: %.3f s", result.getUsers(), result.getElapsed().toNanos() / 1e9);
+        console.printLine();
+        console.printFormat("Invocations: %d (%d succeeded, %d failed), throughput: %.1f/s",
+                result.getTotal(), result.getSuccesses(), result.getTotalFailures(), result.getThroughput());
+        console.printLine();
+
+        for (Map.Entry<String, Long> failure : result.getFailures().entrySet()) {
+            console.printFormat("  %s: %d", failure.getKey(), failure.getValue());
+            console.printLine();
+        }
+
+        printLatencies(result.getLatencies(), result.getDropped(), console);
+    }
+
+    /**
+     * Prints the percentiles of the service and the coordinated-omission-corrected response times.
+     */
+    public void printLatencies(LatencyStatistics latencies, Console console) {
+        printLatencies(latencies, 0, console);
+    }
+
+    /**
+     * Like {@link #printLatencies(LatencyStatistics, Console)}, followed by the number of invocations which were
+     * dropped without a response. They are missing from the percentiles, which have to be read together with them.
+     */
+    private void printLatencies(LatencyStatistics latencies, long dropped, Console console) {
+        if (latencies.getCount() == 0 && dropped == 0) {
+            return;
+        }
+
+        console.printFormat("  %-28s %9s %9s %9s %9s %9s %9s", "Latency [ms]", "p50", "p90", "p99", "p99.9", "max", "count");
+        console.printLine();
+        if (latencies.getCount() > 0) {
+            printHistogram("service time", latencies.getServiceTimes(), console);
+            printHistogram(latencies.isOpenLoop() ? "response time (from schedule)" : "response time (corrected)", latencies.getResponseTimes(), console);
+        }
+        if (dropped > 0) {
+            console.printFormat("  %-28s %9s %9s %9s %9s %9s %9d", "dropped (not in percentiles)", "-", "-", "-", "-", "-", dropped);
+            console.printLine();
+        }
+    }
+
+    /**
+     * Prints the real-time factors by audio duration and the fit of the latency over the duration.
+     */
+    public void printRealTimeFactors(RealTimeFactors factors, Console console) {
+        if (factors.getCount() == 0) {
+            return;
+        }
+
+        console.printFormat("  %-28s %9s %9s %9s %9s", "Real-time factor by audio", "p50", "p90", "max", "count");
+        console.printLine();
+        for (RealTimeFactors.Bucket bucket : factors.getBuckets()) {
+            console.printFormat("  %-28s %9.3f %9.3f %9.3f %9d", bucket.getName(),
+                    bucket.getFactorAtPercentile(50),
+                    bucket.getFactorAtPercentile(90),
+                    bucket.getMaxFactor(),
+                    bucket.getCount());
+            console.printLine();
+        }
+
+        RealTimeFactors.Regression regression = factors.getRegression();
+        if (regression != null) {
+            console.printFormat("  Latency: %.0f ms + %.0f ms per second of audio (R^2 %.2f, %d invocations)",
+                    regression.getInterceptMillis(), regression.getSlopeMillisPerSecond(), regression.getRSquared(), regression.getCount());
+            console.printLine();
+        }
+    }
+
+    private void printHistogram(String name, Histogram histogram, Console console) {
+        console.printFormat("  %-28s %9.3f %9.3f %9.3f %9.3f %9.3f %9d", name,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI,
+                histogram.getTotalCount());
+        console.printLine();
+    }
+}
@@ -27,9 +27,8 @@
 package de.telekom.voice.cli.command.helper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import de.telekom.voice.cli.base.ObjectMapperFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.telekom.voice.cli.base.CodecRegistry;
 
 import java.util.Map;
 
@@ -37,7 +36,11 @@ import java.util.Map;
  * Helper for client metadata.
  */
 public class MetadataHelper {
-    private final ObjectMapper mapper = ObjectMapperFactory.create().disable(SerializationFeature.INDENT_OUTPUT);
+    private final ObjectWriter writer;
+
+    public MetadataHelper(CodecRegistry codecs) {
+        this.writer = codecs.writer(Map.class);
+    }
 
     /**
      * Serializes the given object to JSON.
@@ -47,7 +50,7 @@ public class MetadataHelper {
      */
     public String serialize(Map<String, Object> data) {
         try {
-            return mapper.writeValueAsString(data);
+            return writer.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Could not serialize data to JSON", e);
         }
@@ -29,6 +29,7 @@ package de.telekom.voice.cli.command.helper;
 import de.telekom.voice.cli.Context;
 import de.telekom.voice.cli.connector.InvokeResponse;
 import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.dto.InvokeResultProjection;
 import de.telekom.voice.cli.connector.dto.SessionDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +57,14 @@ public class SessionHelper {
         handleSession(session.isFinished(), session.getId(), context);
     }
 
+    public void handleSession(InvokeResultProjection result, Context context) {
+        if (result == null || !result.hasSession()) {
+            return;
+        }
+
+        handleSession(result.isSessionFinished(), result.getSessionId(), context);
+    }
+
 
     public void handleSession(boolean finished, String sessionId, Context context) {
         if (finished) {
@@ -27,9 +27,8 @@
 package de.telekom.voice.cli.command.helper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.base.CodecRegistry;
 import de.telekom.voice.cli.cli.Console;
 import de.telekom.voice.cli.connector.InvokeResponse;
 import de.telekom.voice.cli.connector.dto.InvokeResultDto;
@@ -38,7 +37,11 @@ import javax.annotation.Nullable;
 import java.util.Map;
 
 public class SkillResultHelper {
-    private final ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.INDENT_OUTPUT);
+    private final CodecRegistry codecs;
+
+    public SkillResultHelper(CodecRegistry codecs) {
+        this.codecs = codecs;
+    }
 
     public void printSkillResponse(Context context, InvokeResponse result, Console console) {
         InvokeResultDto dto = result.getDto();
@@ -73,7 +76,7 @@ public class SkillResultHelper {
 
     private void printDebugJson(Console console, InvokeResultDto dto) {
         try {
-            console.printFormat("Debug JSON: %s", mapper.writeValueAsString(dto));
+            console.printFormat("Debug JSON: %s", codecs.writer(InvokeResultDto.class).writeValueAsString(dto));
             console.printLine();
         } catch (JsonProcessingException e) {
             // Ignore
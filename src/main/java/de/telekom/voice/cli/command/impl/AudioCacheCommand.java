@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.audio.AudioCache;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.command.Command;
+
+public class AudioCacheCommand implements Command {
+    private static final String CLEAR = "clear";
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final Console console;
+    private final AudioCache audioCache;
+
+    public AudioCacheCommand(Console console, AudioCache audioCache) {
+        this.console = console;
+        this.audioCache = audioCache;
+    }
+
+    @Override
+    public String getName() {
+        return "audio-cache";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.OPTIONAL;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.NO;
+    }
+
+    @Override
+    public void invoke(Context context, String args) {
+        if (CLEAR.equals(args)) {
+            audioCache.clear();
+            console.printLine("Audio cache cleared");
+            return;
+        }
+        if (args != null) {
+            console.printFormat("Unknown argument '%s'", args);
+            console.printLine();
+            return;
+        }
+
+        AudioCache.Statistics statistics = audioCache.getStatistics();
+        console.printFormat("Files: %d, size: %.1f of %.1f MB", statistics.getEntries(),
+                statistics.getBytes() / MEGABYTE, statistics.getMaxBytes() / MEGABYTE);
+        console.printLine();
+        console.printFormat("Hits: %d, misses: %d (%.1f%% hits), evictions: %d", statistics.getHits(),
+                statistics.getMisses(), statistics.getHitRatio() * 100, statistics.getEvictions());
+        console.printLine();
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [clear] - Prints the statistics of the audio file cache, or clears it";
+    }
+}
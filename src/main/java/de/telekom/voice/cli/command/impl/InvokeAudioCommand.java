@@ -27,8 +27,13 @@
 package de.telekom.voice.cli.command.impl;
 
 import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.audio.AudioPayload;
+import de.telekom.voice.cli.audio.PacedAudioPayload;
+import de.telekom.voice.cli.audio.PrefixedAudioPayload;
+import de.telekom.voice.cli.audio.TrimmingAudioPayload;
 import de.telekom.voice.cli.cli.Console;
 import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.ArgumentHelper;
 import de.telekom.voice.cli.command.helper.ExceptionHelper;
 import de.telekom.voice.cli.command.helper.FileHelper;
 import de.telekom.voice.cli.command.helper.MetadataHelper;
@@ -36,15 +41,24 @@ import de.telekom.voice.cli.command.helper.SessionHelper;
 import de.telekom.voice.cli.command.helper.SkillResultHelper;
 import de.telekom.voice.cli.connector.Connector;
 import de.telekom.voice.cli.connector.InvokeResponse;
+import de.telekom.voice.cli.connector.PartialTranscriptionListener;
+import de.telekom.voice.cli.connector.dto.STTResultDto;
 import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.load.CommandLatencies;
+import de.telekom.voice.cli.load.RealTimeFactors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 public class InvokeAudioCommand implements Command {
     private static final Logger LOGGER = LoggerFactory.getLogger(InvokeAudioCommand.class);
+    private static final String REALTIME_FLAG = "realtime";
+    private static final String CONVERT_FLAG = "convert";
+    private static final String TRIM_FLAG = "trim";
 
     private final Connector connector;
     private final Console console;
@@ -53,8 +67,10 @@ public class InvokeAudioCommand implements Command {
     private final SessionHelper sessionHelper;
     private final MetadataHelper metadataHelper;
     private final ExceptionHelper exceptionHelper;
+    private final ArgumentHelper argumentHelper;
+    private final CommandLatencies commandLatencies;
 
-    public InvokeAudioCommand(Connector connector, Console console, SkillResultHelper resultHelper, FileHelper fileHelper, SessionHelper sessionHelper, MetadataHelper metadataHelper, ExceptionHelper exceptionHelper) {
+    public InvokeAudioCommand(Connector connector, Console console, SkillResultHelper resultHelper, FileHelper fileHelper, SessionHelper sessionHelper, MetadataHelper metadataHelper, ExceptionHelper exceptionHelper, ArgumentHelper argumentHelper, CommandLatencies commandLatencies) {
         this.connector = connector;
         this.console = console;
         this.resultHelper = resultHelper;
@@ -62,6 +78,8 @@ public class InvokeAudioCommand implements Command {
         this.sessionHelper = sessionHelper;
         this.metadataHelper = metadataHelper;
         this.exceptionHelper = exceptionHelper;
+        this.argumentHelper = argumentHelper;
+        this.commandLatencies = commandLatencies;
     }
 
     @Override
@@ -81,26 +99,165 @@ public class InvokeAudioCommand implements Command {
 
     @Override
     public void invoke(Context context, String args) {
-        Path file = Paths.get(args);
-        byte[] audio = fileHelper.readFile(file, console);
+        ArgumentHelper.FlaggedArguments arguments = argumentHelper.parseFlags(args);
+        boolean convert = arguments.hasFlag(CONVERT_FLAG);
+        Path file = Paths.get(arguments.getRemainder());
+        AudioPayload audio = fileHelper.openAudio(file, convert, console);
         if (audio == null) {
             return;
         }
+        long audioMillis = audio.getHeader().getDurationMillis();
+
+        TrimmingAudioPayload trimmedAudio = null;
+        if (arguments.hasFlag(TRIM_FLAG)) {
+            Double threshold = parseTrimThreshold(arguments.getFlagValue(TRIM_FLAG), argumentHelper, console);
+            if (threshold == null) {
+                return;
+            }
+            trimmedAudio = new TrimmingAudioPayload(audio, threshold);
+            audio = trimmedAudio;
+        }
+
+        long wakeUpWordMillis = 0;
+        if (context.getOptions().getWakeUpWordAudio() != null) {
+            AudioPayload wakeUpWordAudio = fileHelper.openAudio(Paths.get(context.getOptions().getWakeUpWordAudio()), convert, console);
+            if (wakeUpWordAudio == null) {
+                return;
+            }
+            audio = new PrefixedAudioPayload(wakeUpWordAudio, audio);
+            wakeUpWordMillis = wakeUpWordAudio.getHeader().getDurationMillis();
+        }
+
+        PacedAudioPayload pacedAudio = null;
+        if (arguments.hasFlag(REALTIME_FLAG)) {
+            pacedAudio = new PacedAudioPayload(audio);
+            audio = pacedAudio;
+        }
+
+        PartialTranscriptionPrinter partialPrinter = context.getOptions().isEnablePartialTranscriptions() ? new PartialTranscriptionPrinter() : null;
 
         InvokeResponse response;
+        long start = System.nanoTime();
         try {
-            response = InvokeResponse.fromDto(connector.getInvokeAPI().audioJson(context.getAccessToken(), metadataHelper.serialize(context.getMetadata()), context.getDeviceCapabilities(), context.getOptions().getWakeUpWord(), true, true, sessionHelper.getCurrentSessionId(context), audio));
+            response = invokeAudio(context, audio, partialPrinter, connector, sessionHelper, metadataHelper);
         } catch (ApiException e) {
             exceptionHelper.handleException(e, context);
             return;
         }
+        long end = System.nanoTime();
 
-        sessionHelper.handleSession(response, context);
         resultHelper.printSkillResponse(context, response, console);
+        if (trimmedAudio != null) {
+            printTrimming(trimmedAudio);
+        }
+        if (pacedAudio != null) {
+            printRealtimeTimings(pacedAudio, start, end);
+        } else if (audioMillis > 0) {
+            // Paced requests take at least as long as the audio, their latency says nothing about the processing time
+            long sentMillis = wakeUpWordMillis + (trimmedAudio == null ? audioMillis : audioMillis - trimmedAudio.getTrimmedMillis());
+            printRealTimeFactor(sentMillis, end - start);
+        }
+        if (partialPrinter != null) {
+            printPartialTranscriptionTimings(partialPrinter, pacedAudio, start, end);
+        }
+    }
+
+    static InvokeResponse invokeAudio(Context context, AudioPayload audio, @Nullable PartialTranscriptionListener partialTranscriptionListener, Connector connector, SessionHelper sessionHelper, MetadataHelper metadataHelper) throws ApiException {
+        InvokeResponse response = InvokeResponse.fromDto(connector.getStreamingInvokeClient().audioJson(context.getInvocationProfile(metadataHelper), context.getOptions().getWakeUpWord(), true, true, sessionHelper.getCurrentSessionId(context), audio, partialTranscriptionListener));
+        sessionHelper.handleSession(response, context);
+        return response;
+    }
+
+    /**
+     * @param value Value of the trim flag, empty for the default threshold.
+     * @return Threshold in dBFS, or null if the value is invalid.
+     */
+    @Nullable
+    static Double parseTrimThreshold(@Nullable String value, ArgumentHelper argumentHelper, Console console) {
+        if (value == null || value.isEmpty()) {
+            return TrimmingAudioPayload.DEFAULT_THRESHOLD_DBFS;
+        }
+        return argumentHelper.parseDouble(console, value);
+    }
+
+    private void printTrimming(TrimmingAudioPayload audio) {
+        long trimmedBytes = audio.getLeadingBytes() + audio.getTrailingBytes();
+        console.printFormat("Trimmed silence: %d ms (%d ms leading, %d ms trailing), %d of %d bytes (%.0f%%)",
+                audio.getTrimmedMillis(),
+                audio.getLeadingBytes() * 1000 / audio.getHeader().getByteRate(),
+                audio.getTrailingBytes() * 1000 / audio.getHeader().getByteRate(),
+                trimmedBytes, audio.getSourceBytes(),
+                audio.getSourceBytes() == 0 ? 0.0 : trimmedBytes * 100.0 / audio.getSourceBytes());
+        console.printLine();
+    }
+
+    private void printRealTimeFactor(long audioMillis, long latencyNanos) {
+        commandLatencies.getRealTimeFactors().record(audioMillis, latencyNanos);
+        console.printFormat("Real-time factor: %.3f (%d ms for %d ms of audio)",
+                RealTimeFactors.of(audioMillis, latencyNanos), TimeUnit.NANOSECONDS.toMillis(latencyNanos), audioMillis);
+        console.printLine();
+    }
+
+    private void printRealtimeTimings(PacedAudioPayload audio, long start, long end) {
+        console.printFormat("Audio: %d ms, total request: %d ms, end of speech to result: %d ms",
+                audio.getAudioMillis(),
+                TimeUnit.NANOSECONDS.toMillis(end - start),
+                TimeUnit.NANOSECONDS.toMillis(end - audio.getEndOfSpeechNanos()));
+        console.printLine();
+    }
+
+    private void printPartialTranscriptionTimings(PartialTranscriptionPrinter partialPrinter, @Nullable PacedAudioPayload pacedAudio, long start, long end) {
+        commandLatencies.forCommand(getName() + " (final)").record(start, end);
+        if (partialPrinter.getFirstPartialNanos() == 0) {
+            console.printLine("No partial transcriptions received");
+            return;
+        }
+        commandLatencies.forCommand(getName() + " (first partial)").record(start, partialPrinter.getFirstPartialNanos());
+
+        console.printFormat("Partial transcriptions: %d, first partial after %d ms, final after %d ms",
+                partialPrinter.getPartials(),
+                TimeUnit.NANOSECONDS.toMillis(partialPrinter.getFirstPartialNanos() - start),
+                TimeUnit.NANOSECONDS.toMillis(end - start));
+        console.printLine();
+        if (pacedAudio != null) {
+            // Partials only arrive before the end of speech if the response is read during the upload (HTTP/2)
+            long beforeEndOfSpeechNanos = pacedAudio.getEndOfSpeechNanos() - partialPrinter.getFirstPartialNanos();
+            console.printFormat(beforeEndOfSpeechNanos > 0
+                            ? "First partial arrived %d ms before the end of speech"
+                            : "First partial arrived %d ms after the end of speech",
+                    TimeUnit.NANOSECONDS.toMillis(Math.abs(beforeEndOfSpeechNanos)));
+            console.printLine();
+        }
+    }
+
+    /**
+     * Prints partial transcriptions live and records when the first one arrived.
+     */
+    private class PartialTranscriptionPrinter implements PartialTranscriptionListener {
+        private long firstPartialNanos;
+        private int partials;
+
+        @Override
+        public void onPartialTranscription(STTResultDto partial) {
+            if (firstPartialNanos == 0) {
+                firstPartialNanos = System.nanoTime();
+            }
+            partials++;
+            console.printFormat("  ... '%s'", partial.getText());
+            console.printLine();
+        }
+
+        long getFirstPartialNanos() {
+            return firstPartialNanos;
+        }
+
+        int getPartials() {
+            return partials;
+        }
     }
 
     @Override
     public String getHelpText() {
-        return "invoke-audio [file] - Invoke with an audio [file]";
+        return "invoke-audio [--realtime] [--convert] [--trim[=dBFS]] [file] - Invoke with an audio [file]. With --realtime, the audio is streamed at real-time pace like from a microphone. With --convert, audio in other formats is converted to 16 kHz, 16 bit, mono while it is sent. With --trim, leading and trailing silence below the given level (default -40 dBFS) is removed. The wakeUpWordAudio of options.json is sent before the audio";
     }
 }
@@ -0,0 +1,414 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.audio.AudioCorpus;
+import de.telekom.voice.cli.audio.AudioPayload;
+import de.telekom.voice.cli.audio.AudioPrefetcher;
+import de.telekom.voice.cli.audio.ConvertingAudioPayload;
+import de.telekom.voice.cli.audio.CorpusEntry;
+import de.telekom.voice.cli.audio.InvalidAudioException;
+import de.telekom.voice.cli.audio.PrefixedAudioPayload;
+import de.telekom.voice.cli.audio.TrimmingAudioPayload;
+import de.telekom.voice.cli.audio.WavHeader;
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.cli.UserInterruptedException;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.ArgumentHelper;
+import de.telekom.voice.cli.command.helper.FileHelper;
+import de.telekom.voice.cli.command.helper.LoadReportHelper;
+import de.telekom.voice.cli.command.helper.MetadataHelper;
+import de.telekom.voice.cli.command.helper.SessionHelper;
+import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.InvokeResponse;
+import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.load.LatencyStatistics;
+import de.telekom.voice.cli.load.ParallelRunner;
+import de.telekom.voice.cli.load.RealTimeFactors;
+import de.telekom.voice.cli.load.WorkStealingScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invokes with every WAV file of a directory tree or an archive, each in a new session.
+ * <p>
+ * Corpora are kept open for the lifetime of the command, so repeated runs (e.g. with {@code **}) reuse the index and
+ * the memory-mapped files.
+ */
+public class InvokeAudioCorpusCommand implements Command {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvokeAudioCorpusCommand.class);
+
+    private static final String CONVERT_FLAG = "convert";
+    private static final String TRIM_FLAG = "trim";
+    private static final String PREFETCH_FLAG = "prefetch";
+    private static final int DEFAULT_PREFETCH = 4;
+    private static final String PARALLEL_FLAG = "parallel";
+
+    private final Connector connector;
+    private final Console console;
+    private final SessionHelper sessionHelper;
+    private final MetadataHelper metadataHelper;
+    private final LoadReportHelper loadReportHelper;
+    private final ArgumentHelper argumentHelper;
+    private final FileHelper fileHelper;
+    private final CodecRegistry codecs;
+    private final Map<Path, AudioCorpus> corpora = new HashMap<>();
+
+    public InvokeAudioCorpusCommand(Connector connector, Console console, SessionHelper sessionHelper, MetadataHelper metadataHelper, LoadReportHelper loadReportHelper, ArgumentHelper argumentHelper, FileHelper fileHelper, CodecRegistry codecs) {
+        this.connector = connector;
+        this.console = console;
+        this.sessionHelper = sessionHelper;
+        this.metadataHelper = metadataHelper;
+        this.loadReportHelper = loadReportHelper;
+        this.argumentHelper = argumentHelper;
+        this.fileHelper = fileHelper;
+        this.codecs = codecs;
+    }
+
+    @Override
+    public String getName() {
+        return "invoke-audio-corpus";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.REQUIRED;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.YES;
+    }
+
+    @Override
+    public void invoke(Context context, String args) throws UserInterruptedException {
+        ArgumentHelper.FlaggedArguments arguments = argumentHelper.parseFlags(args);
+        boolean convert = arguments.hasFlag(CONVERT_FLAG);
+        Double trimThreshold = null;
+        if (arguments.hasFlag(TRIM_FLAG)) {
+            trimThreshold = InvokeAudioCommand.parseTrimThreshold(arguments.getFlagValue(TRIM_FLAG), argumentHelper, console);
+            if (trimThreshold == null) {
+                return;
+            }
+        }
+        int prefetch = DEFAULT_PREFETCH;
+        if (arguments.hasFlag(PREFETCH_FLAG)) {
+            Integer value = argumentHelper.parseInteger(console, arguments.getFlagValue(PREFETCH_FLAG));
+            if (value == null) {
+                return;
+            }
+            prefetch = Math.max(0, value);
+        }
+        int parallel = 1;
+        if (arguments.hasFlag(PARALLEL_FLAG)) {
+            Integer value = argumentHelper.parseInteger(console, arguments.getFlagValue(PARALLEL_FLAG));
+            if (value == null) {
+                return;
+            }
+            parallel = Math.max(1, value);
+        }
+        AudioPayload wakeUpWordAudio = null;
+        if (context.getOptions().getWakeUpWordAudio() != null) {
+            wakeUpWordAudio = fileHelper.openAudio(Paths.get(context.getOptions().getWakeUpWordAudio()), convert, console);
+            if (wakeUpWordAudio == null) {
+                return;
+            }
+        }
+        Path root = Paths.get(arguments.getRemainder()).toAbsolutePath().normalize();
+        if (!Files.exists(root)) {
+            console.printFormat("'%s' doesn't exist", arguments.getRemainder());
+            console.printLine();
+            return;
+        }
+
+        AudioCorpus corpus;
+        try {
+            corpus = openCorpus(root);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to open corpus {}", root, e);
+            console.printFormat("Failed to read corpus: %s", e.getMessage());
+            console.printLine();
+            return;
+        }
+
+        List<CorpusEntry> entries = corpus.getEntries();
+        if (entries.isEmpty()) {
+            console.printLine("No WAV files found");
+            return;
+        }
+        if (parallel > 1 && !corpus.isRandomAccess()) {
+            console.printLine("Files of compressed tar archives can only be read in order, invoking sequentially");
+            parallel = 1;
+        }
+
+        CorpusRun run = new CorpusRun(entries.size(), convert, trimThreshold, wakeUpWordAudio);
+        // Created before every file forks the context, so they share it
+        context.getInvocationProfile(metadataHelper);
+        long start = System.nanoTime();
+        if (parallel > 1) {
+            invokeParallel(context, corpus, run, parallel);
+        } else {
+            invokeSequential(context, corpus, run, prefetch);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        console.printFormat("Files: %d (%d succeeded, %d failed, %d skipped), audio: %.1f s, elapsed: %.1f s",
+                entries.size(), run.succeeded, run.failed, run.skipped, run.audioMillis / 1000.0, elapsedMillis / 1000.0);
+        console.printLine();
+        if (parallel > 1) {
+            console.printFormat("Waited for audio to load: %d ms (in %d workers, %d files taken over from other workers)",
+                    TimeUnit.NANOSECONDS.toMillis(run.waitNanos), parallel, run.steals);
+        } else {
+            console.printFormat("Waited for audio to load: %d ms (prefetching %d files)", TimeUnit.NANOSECONDS.toMillis(run.waitNanos), prefetch);
+        }
+        console.printLine();
+        if (trimThreshold != null) {
+            console.printFormat("Trimmed silence: %.1f s, %d bytes", run.trimmedMillis / 1000.0, run.trimmedBytes);
+            console.printLine();
+        }
+        loadReportHelper.printLatencies(run.latencies, console);
+        loadReportHelper.printRealTimeFactors(run.realTimeFactors, console);
+    }
+
+    /**
+     * Invokes with the files in corpus order, reading the next files in the background.
+     */
+    private void invokeSequential(Context context, AudioCorpus corpus, CorpusRun run, int prefetch) throws UserInterruptedException {
+        List<CorpusEntry> entries = corpus.getEntries();
+        try (AudioPrefetcher prefetcher = new AudioPrefetcher(corpus, entries, run::isAccepted, prefetch)) {
+            for (int i = 0; i < entries.size(); i++) {
+                AudioPrefetcher.Item item;
+                try {
+                    item = prefetcher.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UserInterruptedException(e);
+                }
+                invokeEntry(context, run, item.getEntry(), item.getAudio(), item.getError());
+            }
+            run.addWaitNanos(prefetcher.getWaitNanos());
+        }
+    }
+
+    /**
+     * Invokes with the files on several workers, longest files first. The total time is bounded by the busiest worker,
+     * so starting with the long files and filling up with the short ones keeps the workers evenly loaded until the end.
+     */
+    private void invokeParallel(Context context, AudioCorpus corpus, CorpusRun run, int parallel) throws UserInterruptedException {
+        List<CorpusEntry> accepted = new ArrayList<>();
+        for (CorpusEntry entry : corpus.getEntries()) {
+            if (run.isAccepted(entry)) {
+                accepted.add(entry);
+            } else {
+                invokeEntry(context, run, entry, null, null);
+            }
+        }
+
+        WorkStealingScheduler<CorpusEntry> scheduler = new WorkStealingScheduler<>(accepted, CorpusEntry::getDurationMillis, parallel);
+        try {
+            new ParallelRunner().run(scheduler, entry -> {
+                long start = System.nanoTime();
+                AudioPayload audio = null;
+                Throwable error = null;
+                try {
+                    audio = corpus.preload(entry);
+                } catch (Throwable e) {
+                    error = e;
+                }
+                run.addWaitNanos(System.nanoTime() - start);
+                invokeEntry(context, run, entry, audio, error);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserInterruptedException(e);
+        }
+        run.steals = scheduler.getSteals();
+    }
+
+    /**
+     * Invokes with a single file in a new session, or reports why it was skipped. May be called from several threads.
+     *
+     * @param audio Audio of the entry, null if the entry isn't accepted or failed to load.
+     * @param error Error loading the audio.
+     */
+    private void invokeEntry(Context context, CorpusRun run, CorpusEntry entry, @Nullable AudioPayload audio, @Nullable Throwable error) {
+        if (!entry.isValid()) {
+            run.skipped(entry, String.format(": skipped, %s", entry.getError()));
+            return;
+        }
+        WavHeader header = entry.getHeader();
+        if (!run.isAccepted(entry)) {
+            run.skipped(entry, String.format(": skipped, unsupported audio format %s%s", header.describe(),
+                    !run.convert && ConvertingAudioPayload.isConvertible(header) ? " (use --convert)" : ""));
+            return;
+        }
+        if (error != null || audio == null) {
+            LOGGER.debug("Failed to load {}", entry.getPath(), error);
+            run.failed(entry, String.format(": failed, %s", error == null ? "no audio"
+                    : error instanceof IOException ? error.getMessage() : error.toString()));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!header.isSupported()) {
+                audio = new ConvertingAudioPayload(audio);
+            }
+            TrimmingAudioPayload trimmedAudio = null;
+            if (run.trimThreshold != null) {
+                trimmedAudio = new TrimmingAudioPayload(audio, run.trimThreshold);
+                audio = trimmedAudio;
+            }
+            if (run.wakeUpWordAudio != null) {
+                audio = new PrefixedAudioPayload(run.wakeUpWordAudio, audio);
+            }
+            InvokeResponse response = InvokeAudioCommand.invokeAudio(context.fork(), audio, null, connector, sessionHelper, metadataHelper);
+            long end = System.nanoTime();
+            run.latencies.record(start, end);
+            run.succeeded(entry, trimmedAudio, end - start, formatResult(entry, response, trimmedAudio, TimeUnit.NANOSECONDS.toMillis(end - start)));
+        } catch (InvalidAudioException | ApiException e) {
+            LOGGER.debug("Invocation with {} failed", entry.getPath(), e);
+            run.failed(entry, String.format(": failed, %s", e.getMessage()));
+        } catch (RuntimeException e) {
+            // A single broken file or response shouldn't abort the run, or kill a worker of a parallel one
+            LOGGER.debug("Invocation with {} failed unexpectedly", entry.getPath(), e);
+            run.failed(entry, String.format(": failed, %s", e));
+        }
+    }
+
+    private AudioCorpus openCorpus(Path root) throws IOException {
+        AudioCorpus corpus = corpora.get(root);
+        if (corpus == null) {
+            corpus = AudioCorpus.open(root, codecs);
+            corpora.put(root, corpus);
+        } else {
+            corpus.refresh();
+        }
+        return corpus;
+    }
+
+    private static String formatResult(CorpusEntry entry, @Nullable InvokeResponse response, @Nullable TrimmingAudioPayload trimmedAudio, long millis) {
+        String trimmed = trimmedAudio == null ? "" : String.format(", %.1f s trimmed", trimmedAudio.getTrimmedMillis() / 1000.0);
+        InvokeResultDto dto = response == null ? null : response.getDto();
+        if (dto == null) {
+            return String.format(" (%.1f s%s): empty response (%d ms)", entry.getDurationMillis() / 1000.0, trimmed, millis);
+        }
+        String transcription = dto.getStt() == null ? null : dto.getStt().getText();
+        String type = dto.getSession() == null ? "(no session)" : dto.getSession().isFinished() ? "TELL" : "ASK";
+        return String.format(" (%.1f s%s): '%s' -> %s '%s' (%d ms)", entry.getDurationMillis() / 1000.0, trimmed,
+                transcription, type, dto.getText(), millis);
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [--convert] [--trim[=dBFS]] [--prefetch=N] [--parallel=N] [dir|archive] - Invokes with every WAV file in [dir] and its subdirectories or in a .zip, .tar, .tar.gz or .tgz [archive], each in a new session, and prints a summary. The parsed files are indexed in [dir]/.voice-cli-index.json or [archive].voice-cli-index.json. The next N files (default 4) are read in the background while a request is running. With --parallel, N workers invoke concurrently, starting with the longest files. With --convert, audio in other formats is converted to 16 kHz, 16 bit, mono while it is sent. With --trim, leading and trailing silence below the given level (default -40 dBFS) is removed. The wakeUpWordAudio of options.json is sent before every file";
+    }
+
+    /**
+     * Options and results of a single run over a corpus. The results are updated and printed under the lock of the
+     * run, so the lines of parallel workers don't interleave.
+     */
+    private final class CorpusRun {
+        private final int files;
+        private final boolean convert;
+        @Nullable
+        private final Double trimThreshold;
+        @Nullable
+        private final AudioPayload wakeUpWordAudio;
+        private final LatencyStatistics latencies = LatencyStatistics.closedLoop();
+        private final RealTimeFactors realTimeFactors = new RealTimeFactors();
+        private int done;
+        private int succeeded;
+        private int failed;
+        private int skipped;
+        private int steals;
+        private long audioMillis;
+        private long trimmedMillis;
+        private long trimmedBytes;
+        private long waitNanos;
+
+        CorpusRun(int files, boolean convert, @Nullable Double trimThreshold, @Nullable AudioPayload wakeUpWordAudio) {
+            this.files = files;
+            this.convert = convert;
+            this.trimThreshold = trimThreshold;
+            this.wakeUpWordAudio = wakeUpWordAudio;
+        }
+
+        boolean isAccepted(CorpusEntry entry) {
+            return entry.isValid() && (entry.getHeader().isSupported() || convert && ConvertingAudioPayload.isConvertible(entry.getHeader()));
+        }
+
+        synchronized void addWaitNanos(long nanos) {
+            waitNanos += nanos;
+        }
+
+        synchronized void succeeded(CorpusEntry entry, @Nullable TrimmingAudioPayload trimmedAudio, long latencyNanos, String result) {
+            succeeded++;
+            audioMillis += entry.getDurationMillis();
+            long sentMillis = entry.getDurationMillis();
+            if (wakeUpWordAudio != null) {
+                sentMillis += wakeUpWordAudio.getHeader().getDurationMillis();
+            }
+            if (trimmedAudio != null) {
+                trimmedMillis += trimmedAudio.getTrimmedMillis();
+                trimmedBytes += trimmedAudio.getLeadingBytes() + trimmedAudio.getTrailingBytes();
+                sentMillis -= trimmedAudio.getTrimmedMillis();
+            }
+            realTimeFactors.record(sentMillis, latencyNanos);
+            print(entry, result);
+        }
+
+        synchronized void failed(CorpusEntry entry, String result) {
+            failed++;
+            print(entry, result);
+        }
+
+        synchronized void skipped(CorpusEntry entry, String result) {
+            skipped++;
+            print(entry, result);
+        }
+
+        private void print(CorpusEntry entry, String result) {
+            done++;
+            console.printLine(String.format("[%d/%d] %s%s", done, files, entry.getPath(), result));
+        }
+    }
+}
@@ -34,6 +34,7 @@ import de.telekom.voice.cli.command.helper.MetadataHelper;
 import de.telekom.voice.cli.command.helper.SessionHelper;
 import de.telekom.voice.cli.command.helper.SkillResultHelper;
 import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.InvocationProfile;
 import de.telekom.voice.cli.connector.InvokeResponse;
 import de.telekom.voice.cli.connector.dto.EntityValueDto;
 import de.telekom.voice.cli.connector.dto.IntentRequestDto;
@@ -86,11 +87,12 @@ public class InvokeIntentCommand implements Command {
             entities.put(entity[0], Collections.singletonList(new EntityValueDto(entity[1], entity[1])));
         }
 
+        InvocationProfile profile = context.getInvocationProfile(metadataHelper);
         InvokeResponse response;
         try {
             response = InvokeResponse.fromDto(
                     connector.getInvokeAPI().intentJson(
-                            context.getAccessToken(), metadataHelper.serialize(context.getMetadata()), context.getDeviceCapabilities(),
+                            profile.getAuthorization(), profile.getMetadata(), profile.getDeviceCapabilities(),
                             true, true, sessionHelper.getCurrentSessionId(context),
                             new IntentRequestDto(intent, entities)
                     )
@@ -34,7 +34,9 @@ import de.telekom.voice.cli.command.helper.MetadataHelper;
 import de.telekom.voice.cli.command.helper.SessionHelper;
 import de.telekom.voice.cli.command.helper.SkillResultHelper;
 import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.InvocationProfile;
 import de.telekom.voice.cli.connector.InvokeResponse;
+import de.telekom.voice.cli.connector.dto.InvokeResultProjection;
 import de.telekom.voice.cli.connector.dto.STTRequestDto;
 import de.telekom.voice.cli.connector.exception.ApiException;
 
@@ -74,16 +76,31 @@ public class InvokeTextCommand implements Command {
     public void invoke(Context context, String args) {
         InvokeResponse response;
         try {
-            response = InvokeResponse.fromDto(connector.getInvokeAPI().textJson(context.getAccessToken(), metadataHelper.serialize(context.getMetadata()), context.getDeviceCapabilities(), true, true, sessionHelper.getCurrentSessionId(context), new STTRequestDto(args)));
+            response = invokeText(context, args, connector, sessionHelper, metadataHelper);
         } catch (ApiException e) {
             exceptionHelper.handleException(e, context);
             return;
         }
 
-        sessionHelper.handleSession(response, context);
         resultHelper.printSkillResponse(context, response, console);
     }
 
+    static InvokeResponse invokeText(Context context, String text, Connector connector, SessionHelper sessionHelper, MetadataHelper metadataHelper) throws ApiException {
+        InvocationProfile profile = context.getInvocationProfile(metadataHelper);
+        InvokeResponse response = InvokeResponse.fromDto(connector.getInvokeAPI().textJson(profile.getAuthorization(), profile.getMetadata(), profile.getDeviceCapabilities(), true, true, sessionHelper.getCurrentSessionId(context), new STTRequestDto(text)));
+        sessionHelper.handleSession(response, context);
+        return response;
+    }
+
+    /**
+     * Like {@link #invokeText}, but only decodes what load runs need.
+     */
+    static InvokeResultProjection invokeTextProjected(Context context, String text, Connector connector, SessionHelper sessionHelper, MetadataHelper metadataHelper) throws ApiException {
+        InvokeResultProjection result = connector.getTextInvokeClient().textJsonProjected(context.getInvocationProfile(metadataHelper), true, true, sessionHelper.getCurrentSessionId(context), new STTRequestDto(text));
+        sessionHelper.handleSession(result, context);
+        return result;
+    }
+
     @Override
     public String getHelpText() {
         return "invoke-text [text] - Invoke with [text]";
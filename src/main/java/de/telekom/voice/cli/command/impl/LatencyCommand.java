@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.LoadReportHelper;
+import de.telekom.voice.cli.load.CommandLatencies;
+import de.telekom.voice.cli.load.LatencyStatistics;
+
+import java.util.Map;
+
+public class LatencyCommand implements Command {
+    private static final String RESET = "reset";
+
+    private final Console console;
+    private final CommandLatencies commandLatencies;
+    private final LoadReportHelper loadReportHelper;
+
+    public LatencyCommand(Console console, CommandLatencies commandLatencies, LoadReportHelper loadReportHelper) {
+        this.console = console;
+        this.commandLatencies = commandLatencies;
+        this.loadReportHelper = loadReportHelper;
+    }
+
+    @Override
+    public String getName() {
+        return "latency";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.OPTIONAL;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.NO;
+    }
+
+    @Override
+    public void invoke(Context context, String args) {
+        if (RESET.equals(args)) {
+            commandLatencies.reset();
+            console.printLine("Latency statistics reset");
+            return;
+        }
+        if (args != null) {
+            console.printFormat("Unknown argument '%s'", args);
+            console.printLine();
+            return;
+        }
+
+        Map<String, LatencyStatistics> latencies = commandLatencies.getAll();
+        if (latencies.isEmpty()) {
+            console.printLine("No commands executed yet");
+            return;
+        }
+        for (Map.Entry<String, LatencyStatistics> entry : latencies.entrySet()) {
+            if (entry.getKey().equals(getName())) {
+                continue;
+            }
+            console.printLine(entry.getKey() + ":");
+            loadReportHelper.printLatencies(entry.getValue(), console);
+        }
+        loadReportHelper.printRealTimeFactors(commandLatencies.getRealTimeFactors(), console);
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [reset] - Prints the latency percentiles of all commands executed so far and the real-time factors of the audio invocations, or resets them";
+    }
+}
@@ -0,0 +1,157 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.cli.UserInterruptedException;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.ArgumentHelper;
+import de.telekom.voice.cli.command.helper.LoadReportHelper;
+import de.telekom.voice.cli.command.helper.MetadataHelper;
+import de.telekom.voice.cli.command.helper.SessionHelper;
+import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.load.AsyncLoadRunner;
+import de.telekom.voice.cli.load.LoadLimit;
+import de.telekom.voice.cli.load.LoadResult;
+import de.telekom.voice.cli.load.LoadRunner;
+
+import java.time.Duration;
+
+/**
+ * Generates load on the text invocation with multiple concurrent virtual users. With {@code --async}, the requests are
+ * non-blocking instead of using a thread per virtual user.
+ */
+public class LoadTextCommand implements Command {
+    private static final String ASYNC_FLAG = "async";
+
+    private final Connector connector;
+    private final Console console;
+    private final SessionHelper sessionHelper;
+    private final MetadataHelper metadataHelper;
+    private final ArgumentHelper argumentHelper;
+    private final LoadReportHelper loadReportHelper;
+    private final LoadRunner loadRunner = new LoadRunner();
+    private final AsyncLoadRunner asyncLoadRunner = new AsyncLoadRunner();
+
+    public LoadTextCommand(Connector connector, Console console, SessionHelper sessionHelper, MetadataHelper metadataHelper, ArgumentHelper argumentHelper, LoadReportHelper loadReportHelper) {
+        this.connector = connector;
+        this.console = console;
+        this.sessionHelper = sessionHelper;
+        this.metadataHelper = metadataHelper;
+        this.argumentHelper = argumentHelper;
+        this.loadReportHelper = loadReportHelper;
+    }
+
+    @Override
+    public String getName() {
+        return "load-text";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.REQUIRED;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.YES;
+    }
+
+    @Override
+    public void invoke(Context context, String args) throws UserInterruptedException {
+        ArgumentHelper.FlaggedArguments arguments = argumentHelper.parseFlags(args);
+        boolean async = arguments.hasFlag(ASYNC_FLAG);
+        String[] parts = arguments.getRemainder().split(" ", 3);
+        if (parts.length != 3) {
+            console.printFormat("Expected 3 arguments, found %d", parts.length);
+            console.printLine();
+            return;
+        }
+
+        Integer users = argumentHelper.parseInteger(console, parts[0]);
+        if (users == null) {
+            return;
+        }
+        if (users < 1) {
+            console.printLine("At least one virtual user is needed");
+            return;
+        }
+
+        LoadLimit limit;
+        if (argumentHelper.isDuration(parts[1])) {
+            Duration duration = argumentHelper.parseDuration(console, parts[1]);
+            if (duration == null) {
+                return;
+            }
+            if (duration.isZero()) {
+                console.printLine("The duration must be longer than zero");
+                return;
+            }
+            limit = LoadLimit.duration(duration);
+        } else {
+            Integer iterations = argumentHelper.parseInteger(console, parts[1]);
+            if (iterations == null) {
+                return;
+            }
+            if (iterations < 1) {
+                console.printLine("At least one iteration is needed");
+                return;
+            }
+            limit = LoadLimit.iterations(iterations);
+        }
+
+        String text = parts[2];
+        console.printFormat("Running %d virtual users for %s with text '%s'", users, limit, text);
+        console.printLine();
+
+        // Created before the virtual users fork the context, so they share it
+        context.getInvocationProfile(metadataHelper);
+        LoadResult result;
+        try {
+            if (async) {
+                result = asyncLoadRunner.run(context, users, limit, userContext -> connector.getAsyncInvokeClient()
+                        .textJsonProjected(userContext.getInvocationProfile(metadataHelper), true, true, sessionHelper.getCurrentSessionId(userContext), new STTRequestDto(text))
+                        .thenAccept(dto -> sessionHelper.handleSession(dto, userContext)));
+            } else {
+                result = loadRunner.run(context, users, limit,
+                        userContext -> InvokeTextCommand.invokeTextProjected(userContext, text, connector, sessionHelper, metadataHelper));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserInterruptedException(e);
+        }
+
+        loadReportHelper.printReport(result, console);
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [--async] [users] [iterations|duration] [text] - Invokes with [text] from [users] concurrent virtual users, each issuing [iterations] invocations or running for [duration] (e.g. 30s, 5m). With --async, the requests are non-blocking, so the number of virtual users isn't limited by threads. They are always sent with HTTP/1.1, regardless of --transport";
+    }
+}
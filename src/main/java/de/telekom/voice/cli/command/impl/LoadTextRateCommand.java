@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.cli.UserInterruptedException;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.ArgumentHelper;
+import de.telekom.voice.cli.command.helper.LoadReportHelper;
+import de.telekom.voice.cli.command.helper.MetadataHelper;
+import de.telekom.voice.cli.command.helper.SessionHelper;
+import de.telekom.voice.cli.connector.Connector;
+import de.telekom.voice.cli.load.ArrivalSchedule;
+import de.telekom.voice.cli.load.LoadResult;
+import de.telekom.voice.cli.load.OpenLoopRunner;
+import de.telekom.voice.cli.load.Stage;
+
+import java.util.List;
+
+/**
+ * Generates load on the text invocation with a target arrival rate, independent of the response times.
+ */
+public class LoadTextRateCommand implements Command {
+    private final Connector connector;
+    private final Console console;
+    private final SessionHelper sessionHelper;
+    private final MetadataHelper metadataHelper;
+    private final ArgumentHelper argumentHelper;
+    private final LoadReportHelper loadReportHelper;
+    private final OpenLoopRunner openLoopRunner = new OpenLoopRunner();
+
+    public LoadTextRateCommand(Connector connector, Console console, SessionHelper sessionHelper, MetadataHelper metadataHelper, ArgumentHelper argumentHelper, LoadReportHelper loadReportHelper) {
+        this.connector = connector;
+        this.console = console;
+        this.sessionHelper = sessionHelper;
+        this.metadataHelper = metadataHelper;
+        this.argumentHelper = argumentHelper;
+        this.loadReportHelper = loadReportHelper;
+    }
+
+    @Override
+    public String getName() {
+        return "load-text-rate";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.REQUIRED;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.YES;
+    }
+
+    @Override
+    public void invoke(Context context, String args) throws UserInterruptedException {
+        String[] parts = args.split(" ", 3);
+        if (parts.length != 3) {
+            console.printFormat("Expected 3 arguments, found %d", parts.length);
+            console.printLine();
+            return;
+        }
+
+        List<Stage> stages = argumentHelper.parseStages(console, parts[0]);
+        if (stages == null) {
+            return;
+        }
+        Integer workers = argumentHelper.parseInteger(console, parts[1]);
+        if (workers == null) {
+            return;
+        }
+        if (workers < 1) {
+            console.printLine("At least one worker is needed");
+            return;
+        }
+
+        String text = parts[2];
+        ArrivalSchedule schedule = new ArrivalSchedule(stages);
+        console.printFormat("Sending %d invocations in %.1f s with up to %d workers with text '%s'",
+                schedule.getTotalArrivals(), schedule.getTotalNanos() / 1e9, workers, text);
+        console.printLine();
+
+        LoadResult result;
+        try {
+            result = openLoopRunner.run(context, workers, schedule,
+                    workerContext -> InvokeTextCommand.invokeTextProjected(workerContext, text, connector, sessionHelper, metadataHelper));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserInterruptedException(e);
+        }
+
+        loadReportHelper.printReport(result, console);
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [stages] [workers] [text] - Invokes with [text] at a target rate, independent of the response times. [stages] is a list like 30s:100,60s:100,30s:0, each stage ramping linearly to the given requests per second over the given duration. At most [workers] invocations run concurrently";
+    }
+}
@@ -27,6 +27,7 @@
 package de.telekom.voice.cli.command.impl;
 
 import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.base.CodecRegistry;
 import de.telekom.voice.cli.cli.Console;
 import de.telekom.voice.cli.cli.UserInterruptedException;
 import de.telekom.voice.cli.command.Command;
@@ -36,6 +37,7 @@ import de.telekom.voice.cli.connector.Connector;
 import de.telekom.voice.cli.connector.dto.AccessTokenDto;
 import de.telekom.voice.cli.connector.dto.LoginUserRequestDto;
 import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.connector.feign.JsonDecoder;
 import de.telekom.voice.cli.environment.IdmConfig;
 import de.telekom.voice.cli.oauth2.OAuth2Client;
 import de.telekom.voice.cli.oauth2.OAuth2ErrorDecoder;
@@ -43,7 +45,6 @@ import de.telekom.voice.cli.oauth2.OAuth2Exception;
 import de.telekom.voice.cli.oauth2.OAuth2TokenDto;
 import feign.Feign;
 import feign.form.FormEncoder;
-import feign.jackson.JacksonDecoder;
 import feign.slf4j.Slf4jLogger;
 
 import java.util.function.Consumer;
@@ -56,16 +57,16 @@ public class LoginIdmCommand implements Command {
     private final OAuth2Client oauth2Client;
     private final ExceptionHelper exceptionHelper;
 
-    public LoginIdmCommand(Console console, Connector connector, IdmConfig idmConfig, ExceptionHelper exceptionHelper) {
+    public LoginIdmCommand(Console console, Connector connector, IdmConfig idmConfig, ExceptionHelper exceptionHelper, CodecRegistry codecs) {
         this.console = console;
         this.connector = connector;
         this.idmConfig = idmConfig;
         this.exceptionHelper = exceptionHelper;
-        this.oauth2Client = buildOAuth2Client(idmConfig.getTokenUrl());
+        this.oauth2Client = buildOAuth2Client(idmConfig.getTokenUrl(), codecs);
     }
 
-    static OAuth2Client buildOAuth2Client(String tokenUrl) {
-        JacksonDecoder decoder = new JacksonDecoder();
+    static OAuth2Client buildOAuth2Client(String tokenUrl, CodecRegistry codecs) {
+        JsonDecoder decoder = new JsonDecoder(codecs);
         return Feign.builder()
                 .encoder(new FormEncoder())
                 .decoder(decoder)
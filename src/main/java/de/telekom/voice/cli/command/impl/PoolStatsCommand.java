@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.connector.InstrumentedConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+public class PoolStatsCommand implements Command {
+    private static final String RESET = "reset";
+
+    private final Console console;
+    @Nullable
+    private final InstrumentedConnectionManager connectionManager;
+
+    /**
+     * @param connectionManager Pool of the HTTP/1.1 transport, null if another transport is used.
+     */
+    public PoolStatsCommand(Console console, @Nullable InstrumentedConnectionManager connectionManager) {
+        this.console = console;
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public String getName() {
+        return "pool-stats";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.OPTIONAL;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.NO;
+    }
+
+    @Override
+    public void invoke(Context context, String args) {
+        if (connectionManager == null) {
+            console.printLine("Connection pool statistics are only available with the http1 transport");
+            return;
+        }
+        if (RESET.equals(args)) {
+            connectionManager.resetStatistics();
+            console.printLine("Connection pool statistics reset");
+            return;
+        }
+        if (args != null) {
+            console.printFormat("Unknown argument '%s'", args);
+            console.printLine();
+            return;
+        }
+
+        InstrumentedConnectionManager.Statistics statistics = connectionManager.getStatistics();
+        PoolStats total = statistics.getTotal();
+        console.printFormat("Connections: %d leased, %d available, %d pending, limit %d (%d per host)",
+                total.getLeased(), total.getAvailable(), total.getPending(), total.getMax(), connectionManager.getDefaultMaxPerRoute());
+        console.printLine();
+        for (Map.Entry<String, PoolStats> route : statistics.getRoutes().entrySet()) {
+            PoolStats stats = route.getValue();
+            console.printFormat("  %s: %d leased, %d available, %d pending",
+                    route.getKey(), stats.getLeased(), stats.getAvailable(), stats.getPending());
+            console.printLine();
+        }
+        console.printFormat("Leases: %d, new connections: %d (%.1f%% reused), timeouts: %d", statistics.getLeases(),
+                statistics.getConnects(), statistics.getReuseRatio() * 100, statistics.getTimeouts());
+        console.printLine();
+        console.printFormat("Wait for connection: %.3f ms mean, %.3f ms max",
+                statistics.getMeanLeaseWaitMillis(), statistics.getMaxLeaseWaitMillis());
+        console.printLine();
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [reset] - Prints the state of the HTTP connection pool, how often connections were reused and how long requests waited for one, or resets the counters";
+    }
+}
@@ -26,8 +26,8 @@
 
 package de.telekom.voice.cli.command.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.base.CodecRegistry;
 import de.telekom.voice.cli.cli.Console;
 import de.telekom.voice.cli.command.Command;
 import de.telekom.voice.cli.command.ExecutionException;
@@ -54,13 +54,13 @@ public class PutTokenCommand implements Command {
 
     private final Console console;
     private final Connector connector;
-    private final ObjectMapper objectMapper;
+    private final CodecRegistry codecs;
     private final ExceptionHelper exceptionHelper;
 
-    public PutTokenCommand(Console console, Connector connector, ObjectMapper objectMapper, ExceptionHelper exceptionHelper) {
+    public PutTokenCommand(Console console, Connector connector, CodecRegistry codecs, ExceptionHelper exceptionHelper) {
         this.console = console;
         this.connector = connector;
-        this.objectMapper = objectMapper;
+        this.codecs = codecs;
         this.exceptionHelper = exceptionHelper;
     }
 
@@ -81,10 +81,10 @@ public class PutTokenCommand implements Command {
 
     @Override
     public void invoke(Context context, String args) throws ExecutionException {
-        putToken(console, exceptionHelper, connector.getUserAPI(), objectMapper, context, args);
+        putToken(console, exceptionHelper, connector.getUserAPI(), codecs, context, args);
     }
 
-    static void putToken(Console console, ExceptionHelper exceptionHelper, TokenAPI api, ObjectMapper objectMapper, Context context, String args) {
+    static void putToken(Console console, ExceptionHelper exceptionHelper, TokenAPI api, CodecRegistry codecs, Context context, String args) {
         String[] parts = args.split(" ", 2);
         File tokenFile = new File(parts[0]).getAbsoluteFile();
         console.printFormat("Reading token from file %s", tokenFile);
@@ -92,7 +92,7 @@ public class PutTokenCommand implements Command {
 
         TokenDto tokenDto;
         try {
-            tokenDto = objectMapper.readValue(tokenFile, TokenDto.class);
+            tokenDto = codecs.reader(TokenDto.class).readValue(tokenFile);
         } catch (IOException e) {
             LOGGER.error("Failed to read token file", e);
             return;
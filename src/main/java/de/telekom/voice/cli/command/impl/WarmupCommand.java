@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.command.impl;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.cli.Console;
+import de.telekom.voice.cli.command.Command;
+import de.telekom.voice.cli.command.helper.ArgumentHelper;
+import de.telekom.voice.cli.connector.ConnectionTiming;
+import de.telekom.voice.cli.connector.Connector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opens connections to all APIs in advance, so the first commands don't pay for DNS lookups and handshakes.
+ */
+public class WarmupCommand implements Command {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmupCommand.class);
+
+    private final Console console;
+    private final Connector connector;
+    private final ArgumentHelper argumentHelper;
+
+    public WarmupCommand(Console console, Connector connector, ArgumentHelper argumentHelper) {
+        this.console = console;
+        this.connector = connector;
+        this.argumentHelper = argumentHelper;
+    }
+
+    @Override
+    public String getName() {
+        return "warmup";
+    }
+
+    @Override
+    public Arguments getArgs() {
+        return Arguments.OPTIONAL;
+    }
+
+    @Override
+    public AuthenticationNeed getAuthenticationNeed() {
+        return AuthenticationNeed.NO;
+    }
+
+    @Override
+    public void invoke(Context context, String args) {
+        int connections = 1;
+        if (args != null) {
+            Integer parsed = argumentHelper.parseInteger(console, args);
+            if (parsed == null) {
+                return;
+            }
+            if (parsed < 1) {
+                console.printLine("At least one connection is needed");
+                return;
+            }
+            connections = parsed;
+        }
+
+        long start = System.nanoTime();
+        for (String baseUrl : connector.getBaseUrls()) {
+            List<ConnectionTiming> timings;
+            try {
+                timings = connector.warmUp(baseUrl, connections);
+            } catch (IOException e) {
+                LOGGER.debug("Failed to warm up connections to {}", baseUrl, e);
+                console.printFormat("%s: failed to connect: %s", baseUrl, e.getMessage());
+                console.printLine();
+                continue;
+            }
+
+            console.printFormat("%s: %d connections opened", baseUrl, timings.size());
+            console.printLine();
+            for (ConnectionTiming timing : timings) {
+                console.printFormat("  DNS %.1f ms, TCP %.1f ms, TLS %.1f ms, total %.1f ms",
+                        timing.getDnsMillis(), timing.getTcpMillis(), timing.getTlsMillis(), timing.getTotalMillis());
+                console.printLine();
+            }
+        }
+        console.printFormat("Warm-up took %.1f ms", (System.nanoTime() - start) / 1e6);
+        console.printLine();
+    }
+
+    @Override
+    public String getHelpText() {
+        return getName() + " [connections] - Opens [connections] connections (default: 1) to every API host in advance and prints how long DNS lookup, TCP and TLS handshakes took";
+    }
+}
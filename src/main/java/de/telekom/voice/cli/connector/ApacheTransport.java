@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import de.telekom.voice.cli.audio.AudioPayload;
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.util.EntityUtils;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/1.1 transport based on Apache HttpClient with an {@link InstrumentedConnectionManager instrumented} connection
+ * pool.
+ */
+public class ApacheTransport implements Transport {
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+    private final InstrumentedConnectionManager connectionManager;
+    private final Client feignClient;
+
+    private ApacheTransport(HttpClient client, InstrumentedConnectionManager connectionManager) {
+        this.client = client;
+        this.connectionManager = connectionManager;
+        this.feignClient = new ApacheHttpClient(client);
+    }
+
+    public static ApacheTransport create(ConnectionPoolSettings settings) {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(settings);
+        long keepAliveMillis = settings.getKeepAlive().toMillis();
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout((int) settings.getConnectionRequestTimeout().toMillis())
+                        .build())
+                .setKeepAliveStrategy((response, ctx) -> keepAliveMillis)
+                .evictExpiredConnections()
+                .setUserAgent(Connector.USER_AGENT);
+        if (!settings.getMaxIdleTime().isZero()) {
+            builder.evictIdleConnections(settings.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return new ApacheTransport(builder.build(), connectionManager);
+    }
+
+    public InstrumentedConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    public Client getFeignClient() {
+        return feignClient;
+    }
+
+    @Override
+    public Response post(URI uri, Map<String, String> headers, String contentType, AudioPayload audio) throws IOException {
+        HttpPost request = new HttpPost(uri);
+        headers.forEach(request::setHeader);
+        request.setEntity(new AudioEntity(audio, contentType));
+        return execute(request);
+    }
+
+    @Override
+    public Response post(URI uri, Map<String, String> headers, String contentType, byte[] body, int length) throws IOException {
+        HttpPost request = new HttpPost(uri);
+        headers.forEach(request::setHeader);
+        ByteArrayEntity entity = new ByteArrayEntity(body, 0, length);
+        entity.setContentType(contentType);
+        request.setEntity(entity);
+        return execute(request);
+    }
+
+    private Response execute(HttpPost request) throws IOException {
+        HttpResponse response = client.execute(request);
+        HttpEntity entity = response.getEntity();
+        return new Response() {
+            @Override
+            public int getStatus() {
+                return response.getStatusLine().getStatusCode();
+            }
+
+            @Nullable
+            @Override
+            public String getHeader(String name) {
+                Header header = response.getFirstHeader(name);
+                return header == null ? null : header.getValue();
+            }
+
+            @Override
+            public InputStream getBody() throws IOException {
+                return entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent();
+            }
+
+            @Override
+            public void close() {
+                // Releases the connection back to the pool
+                EntityUtils.consumeQuietly(entity);
+            }
+        };
+    }
+
+    @Override
+    public List<ConnectionTiming> warmUp(URI uri, int connections) throws IOException {
+        // Same route the client plans for requests to this URI, so they find the connections
+        HttpHost host = URIUtils.extractHost(uri);
+        if (host == null) {
+            throw new IOException("No host in " + uri);
+        }
+        HttpHost target = new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host), host.getSchemeName());
+        HttpRoute route = new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+        return connectionManager.warmUp(route, connections, (int) WARM_UP_TIMEOUT.toMillis());
+    }
+
+    /**
+     * Entity which writes the audio payload in chunks while the request is sent.
+     */
+    private static class AudioEntity extends AbstractHttpEntity {
+        private final AudioPayload audio;
+
+        AudioEntity(AudioPayload audio, String contentType) {
+            this.audio = audio;
+            setContentType(contentType);
+            setChunked(true);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("Audio entity can only be written");
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            audio.writeTo(out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+}
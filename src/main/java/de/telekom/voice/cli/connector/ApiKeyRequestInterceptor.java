@@ -30,7 +30,7 @@ import feign.RequestInterceptor;
 import feign.RequestTemplate;
 
 class ApiKeyRequestInterceptor implements RequestInterceptor {
-    private static final String API_KEY_HEADER = "apikey";
+    static final String API_KEY_HEADER = "apikey";
 
     private final String apiKey;
 
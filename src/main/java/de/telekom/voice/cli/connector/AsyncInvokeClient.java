@@ -0,0 +1,342 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.telekom.voice.cli.audio.AudioPayload;
+import de.telekom.voice.cli.audio.ByteBufferAudioPayload;
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.dto.HistoryDirection;
+import de.telekom.voice.cli.connector.dto.HistoryEntriesDto;
+import de.telekom.voice.cli.connector.dto.IntentRequestDto;
+import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.dto.InvokeResultProjection;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.connector.exception.TechnicalApiException;
+import de.telekom.voice.cli.connector.feign.CustomErrorDecoder;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking variants of the invocation and history APIs.
+ * <p>
+ * The requests are executed by a small number of I/O threads, so the number of requests in flight isn't bound to the
+ * number of threads, unlike with the Feign APIs, which block the calling thread until the response arrives. The
+ * futures are completed on the I/O threads, dependent stages should hand blocking work to another executor.
+ * <p>
+ * The client and its I/O threads are started with the first request. Requests are always sent with HTTP/1.1, the
+ * HTTP/2 transport only applies to the blocking APIs.
+ */
+public class AsyncInvokeClient {
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String AUDIO_CONTENT_TYPE = "audio/wav";
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final CodecRegistry codecs;
+    private final CustomErrorDecoder errorDecoder;
+    private final ConnectionPoolSettings poolSettings;
+    @Nullable
+    private CloseableHttpAsyncClient client;
+
+    public AsyncInvokeClient(String baseUrl, String apiKey, CodecRegistry codecs, CustomErrorDecoder errorDecoder, ConnectionPoolSettings poolSettings) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.codecs = codecs;
+        this.errorDecoder = errorDecoder;
+        this.poolSettings = poolSettings;
+    }
+
+    /**
+     * Same as {@link InvokeAPI#textJson}.
+     */
+    public CompletableFuture<InvokeResultDto> textJson(InvocationProfile profile, boolean intent, boolean skill, @Nullable String sessionId,
+                                                       STTRequestDto request) {
+        return postJson("/dm/api/v1/invoke/text/json", profile, intent, skill, sessionId, request, InvokeResultDto.class);
+    }
+
+    /**
+     * Same as {@link TextInvokeClient#textJsonProjected}.
+     */
+    public CompletableFuture<InvokeResultProjection> textJsonProjected(InvocationProfile profile, boolean intent, boolean skill, @Nullable String sessionId,
+                                                                       STTRequestDto request) {
+        return postJson("/dm/api/v1/invoke/text/json", profile, intent, skill, sessionId, request, InvokeResultProjection.class);
+    }
+
+    /**
+     * Same as {@link InvokeAPI#intentJson}.
+     */
+    public CompletableFuture<InvokeResultDto> intentJson(InvocationProfile profile, boolean intent, boolean skill, @Nullable String sessionId,
+                                                         IntentRequestDto request) {
+        return postJson("/dm/api/v1/invoke/intent/json", profile, intent, skill, sessionId, request, InvokeResultDto.class);
+    }
+
+    /**
+     * Same as {@link StreamingInvokeClient#audioJson}, without partial transcriptions. Audio held in a buffer is sent
+     * straight from the buffer, other payloads are written into memory on the calling thread first.
+     */
+    public CompletableFuture<InvokeResultDto> audioJson(InvocationProfile profile, @Nullable String wakeUpPhrase, boolean intent, boolean skill,
+                                                        @Nullable String sessionId, AudioPayload audio) {
+        HttpPost request = new HttpPost(buildInvokeUri("/dm/api/v1/invoke/audio/json", intent, skill, sessionId));
+        setInvokeHeaders(request, profile);
+        if (wakeUpPhrase != null) {
+            request.setHeader("X-WakeUp-Phrase", wakeUpPhrase);
+        }
+        try {
+            request.setEntity(audio instanceof ByteBufferAudioPayload
+                    ? new BufferEntity(((ByteBufferAudioPayload) audio).getBuffer())
+                    : new NByteArrayEntity(toByteArray(audio), ContentType.create(AUDIO_CONTENT_TYPE)));
+        } catch (IOException e) {
+            return failed(new TechnicalApiException("IO exception while reading audio", e));
+        }
+        return execute(request, InvokeResultDto.class);
+    }
+
+    /**
+     * Same as {@link HistoryAPI#listHistoryEntries}.
+     */
+    public CompletableFuture<HistoryEntriesDto> listHistoryEntries(InvocationProfile profile, String fromDate, HistoryDirection direction, int limit) {
+        URI uri;
+        try {
+            uri = new URIBuilder(baseUrl + "/user/api/v1/history")
+                    .addParameter("fromDate", fromDate)
+                    .addParameter("direction", direction.toString())
+                    .addParameter("limit", Integer.toString(limit))
+                    .build();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid base URL " + baseUrl, e);
+        }
+        HttpGet request = new HttpGet(uri);
+        request.setHeader("Accept", JSON_CONTENT_TYPE);
+        if (profile.getAuthorization() != null) {
+            request.setHeader("Authorization", profile.getAuthorization());
+        }
+        request.setHeader(ApiKeyRequestInterceptor.API_KEY_HEADER, apiKey);
+        return execute(request, HistoryEntriesDto.class);
+    }
+
+    private <T> CompletableFuture<T> postJson(String path, InvocationProfile profile,
+                                              boolean intent, boolean skill, @Nullable String sessionId, Object body, Class<T> type) {
+        HttpPost request = new HttpPost(buildInvokeUri(path, intent, skill, sessionId));
+        setInvokeHeaders(request, profile);
+        try {
+            request.setEntity(new NByteArrayEntity(codecs.writer(body.getClass()).writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            return failed(new TechnicalApiException("Failed to serialize request", e));
+        }
+        return execute(request, type);
+    }
+
+    private <T> CompletableFuture<T> execute(HttpUriRequest request, Class<T> type) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<HttpResponse> response = client().execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    int status = response.getStatusLine().getStatusCode();
+                    HttpEntity entity = response.getEntity();
+                    byte[] body = entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+                    if (status >= 200 && status < 300) {
+                        result.complete(codecs.reader(type).readValue(body));
+                    } else {
+                        Header traceId = response.getFirstHeader(CustomErrorDecoder.HEADER_SVH_TRACE_ID);
+                        result.completeExceptionally(errorDecoder.decode(status, traceId == null ? null : traceId.getValue(), new ByteArrayInputStream(body)));
+                    }
+                } catch (IOException e) {
+                    result.completeExceptionally(new TechnicalApiException("IO exception while reading response", e));
+                } catch (RuntimeException e) {
+                    // Otherwise the future would never complete, and a load run waiting for it would hang
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(new TechnicalApiException("IO exception while executing request", e));
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private synchronized CloseableHttpAsyncClient client() {
+        if (client == null) {
+            AtomicInteger threads = new AtomicInteger();
+            long keepAliveMillis = poolSettings.getKeepAlive().toMillis();
+            client = HttpAsyncClients.custom()
+                    .setMaxConnTotal(poolSettings.getMaxConnections())
+                    .setMaxConnPerRoute(poolSettings.getMaxConnectionsPerRoute())
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout((int) poolSettings.getConnectionRequestTimeout().toMillis())
+                            .build())
+                    .setKeepAliveStrategy((response, ctx) -> keepAliveMillis)
+                    .setUserAgent(Connector.USER_AGENT)
+                    .setThreadFactory(runnable -> {
+                        Thread thread = new Thread(runnable, "async-http-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    })
+                    .build();
+            client.start();
+        }
+        return client;
+    }
+
+    private URI buildInvokeUri(String path, boolean intent, boolean skill, @Nullable String sessionId) {
+        try {
+            URIBuilder builder = new URIBuilder(baseUrl + path)
+                    .addParameter("intent", Boolean.toString(intent))
+                    .addParameter("skill", Boolean.toString(skill));
+            if (sessionId != null) {
+                builder.addParameter("sessionId", sessionId);
+            }
+            return builder.build();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid base URL " + baseUrl, e);
+        }
+    }
+
+    private void setInvokeHeaders(HttpPost request, InvocationProfile profile) {
+        request.setHeader("Accept", JSON_CONTENT_TYPE);
+        if (profile.getAuthorization() != null) {
+            request.setHeader("Authorization", profile.getAuthorization());
+        }
+        request.setHeader("X-Client-Metadata", profile.getMetadata());
+        if (profile.getDeviceCapabilities() != null) {
+            request.setHeader("X-Client-Capabilities", profile.getDeviceCapabilities());
+        }
+        request.setHeader(ApiKeyRequestInterceptor.API_KEY_HEADER, apiKey);
+    }
+
+    private static byte[] toByteArray(AudioPayload audio) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(audio.getLength() < 0 ? 64 * 1024 : (int) audio.getLength());
+        audio.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static <T> CompletableFuture<T> failed(Exception e) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(e);
+        return result;
+    }
+
+    /**
+     * Entity which is written from a buffer as the connection becomes writable, without copying the buffer.
+     */
+    private static class BufferEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+        private final ByteBuffer buffer;
+        private ByteBuffer remaining;
+
+        BufferEntity(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.remaining = buffer.duplicate();
+            setContentType(AUDIO_CONTENT_TYPE);
+        }
+
+        @Override
+        public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+            encoder.write(remaining);
+            if (!remaining.hasRemaining()) {
+                encoder.complete();
+            }
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("Buffer entity can only be written");
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            ByteBuffer source = buffer.duplicate();
+            byte[] chunk = new byte[8192];
+            while (source.hasRemaining()) {
+                int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            remaining = buffer.duplicate();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import java.time.Duration;
+
+/**
+ * Limits and timeouts of the HTTP connection pool.
+ */
+public final class ConnectionPoolSettings {
+    public static final ConnectionPoolSettings DEFAULT = new ConnectionPoolSettings(200, 100,
+            Duration.ofMinutes(1), Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final Duration keepAlive;
+    private final Duration maxIdleTime;
+    private final Duration validateAfterInactivity;
+    private final Duration connectionRequestTimeout;
+
+    /**
+     * @param maxConnections           Maximum number of connections in total.
+     * @param maxConnectionsPerRoute   Maximum number of connections to a single host.
+     * @param keepAlive                Time a connection is kept open for reuse after a response, must be positive. The
+     *                                 HTTP clients take zero as "forever".
+     * @param maxIdleTime              Idle connections are closed in the background after this time, zero to disable.
+     * @param validateAfterInactivity  Connections idle for longer than this are checked before they are reused, zero to
+     *                                 disable.
+     * @param connectionRequestTimeout Requests fail if no connection becomes free within this time, zero to wait
+     *                                 forever.
+     */
+    public ConnectionPoolSettings(int maxConnections, int maxConnectionsPerRoute, Duration keepAlive, Duration maxIdleTime, Duration validateAfterInactivity,
+                                  Duration connectionRequestTimeout) {
+        if (keepAlive.isZero() || keepAlive.isNegative()) {
+            throw new IllegalArgumentException("Keep-alive must be positive, was " + keepAlive);
+        }
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.keepAlive = keepAlive;
+        this.maxIdleTime = maxIdleTime;
+        this.validateAfterInactivity = validateAfterInactivity;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+}
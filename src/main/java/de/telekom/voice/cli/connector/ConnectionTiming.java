@@ -0,0 +1,64 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+/**
+ * Time it took to open a connection, broken down into its phases.
+ */
+public final class ConnectionTiming {
+    private final long dnsNanos;
+    private final long tcpNanos;
+    private final long tlsNanos;
+
+    public ConnectionTiming(long dnsNanos, long tcpNanos, long tlsNanos) {
+        this.dnsNanos = dnsNanos;
+        this.tcpNanos = tcpNanos;
+        this.tlsNanos = tlsNanos;
+    }
+
+    /**
+     * @return Time to resolve the host name, close to 0 if it was cached.
+     */
+    public double getDnsMillis() {
+        return dnsNanos / 1e6;
+    }
+
+    public double getTcpMillis() {
+        return tcpNanos / 1e6;
+    }
+
+    /**
+     * @return Time of the TLS handshake, 0 for unencrypted connections.
+     */
+    public double getTlsMillis() {
+        return tlsNanos / 1e6;
+    }
+
+    public double getTotalMillis() {
+        return (dnsNanos + tcpNanos + tlsNanos) / 1e6;
+    }
+}
@@ -26,39 +26,80 @@
 
 package de.telekom.voice.cli.connector;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.dto.AccessTokenDto;
+import de.telekom.voice.cli.connector.dto.DomainUserPreferenceDto;
+import de.telekom.voice.cli.connector.dto.ErrorDto;
+import de.telekom.voice.cli.connector.dto.ErrorResultDto;
+import de.telekom.voice.cli.connector.dto.HistoryEntriesDto;
+import de.telekom.voice.cli.connector.dto.IntentRequestDto;
+import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.dto.InvokeResultProjection;
+import de.telekom.voice.cli.connector.dto.LoginUserRequestDto;
+import de.telekom.voice.cli.connector.dto.NicknamesDto;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.connector.dto.TokenDto;
+import de.telekom.voice.cli.connector.dto.TokensDto;
+import de.telekom.voice.cli.connector.dto.UserInfoDto;
 import de.telekom.voice.cli.connector.feign.ContentTypeAwareDecoder;
 import de.telekom.voice.cli.connector.feign.ContentTypeAwareEncoder;
 import de.telekom.voice.cli.connector.feign.CustomErrorDecoder;
+import de.telekom.voice.cli.connector.feign.JsonDecoder;
+import de.telekom.voice.cli.connector.feign.JsonEncoder;
 import de.telekom.voice.cli.environment.Environment;
 import feign.Feign;
 import feign.Logger;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
-import feign.httpclient.ApacheHttpClient;
-import feign.jackson.JacksonDecoder;
-import feign.jackson.JacksonEncoder;
 import feign.slf4j.Slf4jLogger;
-import org.apache.http.client.HttpClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class Connector {
 
     public static final String USER_AGENT = "telekom-voice-cli";
 
+    /**
+     * Request and response bodies of the APIs, their readers and writers are resolved when the connector is created.
+     */
+    private static final Type[] JSON_TYPES = {
+            AccessTokenDto.class, DomainUserPreferenceDto.class, ErrorDto.class, ErrorResultDto.class,
+            HistoryEntriesDto.class, IntentRequestDto.class, InvokeResultDto.class, InvokeResultProjection.class, LoginUserRequestDto.class,
+            NicknamesDto.NicknameDto.class, STTRequestDto.class, TokenDto.class, TokensDto.class, UserInfoDto.class
+    };
 
     private final HistoryAPI historyAPI;
     private final InvokeAPI invokeAPI;
     private final DomainAPI domainAPI;
     private final UserAPI userAPI;
+    private final StreamingInvokeClient streamingInvokeClient;
+    private final AsyncInvokeClient asyncInvokeClient;
+    private final TextInvokeClient textInvokeClient;
+    private final Transport transport;
+    private final Set<String> baseUrls = new LinkedHashSet<>();
+
+    public Connector(Environment.BaseURLs baseUrls, String apiKey, CodecRegistry codecs, Transport transport, ConnectionPoolSettings poolSettings) {
+        codecs.warmUp(JSON_TYPES);
+        CustomErrorDecoder errorDecoder = new CustomErrorDecoder(codecs);
 
-    public Connector(Environment.BaseURLs baseUrls, String apiKey, ObjectMapper mapper, HttpClient client) {
         // builders should not be reused once properties are changed
-        Feign.Builder builder = getFeignBuilder(apiKey, mapper, client);
+        Feign.Builder builder = getFeignBuilder(apiKey, codecs, transport, errorDecoder);
 
         historyAPI = builder.target(HistoryAPI.class, baseUrls.getCviUrl());
         invokeAPI = builder.target(InvokeAPI.class, baseUrls.getCviUrl());
         domainAPI = builder.target(DomainAPI.class, baseUrls.getCviUrl());
         userAPI = builder.target(UserAPI.class, baseUrls.getUserUrl());
+        streamingInvokeClient = new StreamingInvokeClient(baseUrls.getCviUrl(), apiKey, codecs, transport, errorDecoder);
+        textInvokeClient = new TextInvokeClient(baseUrls.getCviUrl(), apiKey, codecs, transport, errorDecoder);
+        asyncInvokeClient = new AsyncInvokeClient(baseUrls.getCviUrl(), apiKey, codecs, errorDecoder, poolSettings);
+        this.transport = transport;
+        this.baseUrls.add(baseUrls.getCviUrl());
+        this.baseUrls.add(baseUrls.getUserUrl());
     }
 
     public HistoryAPI getHistoryAPI() {
@@ -77,14 +118,41 @@ public class Connector {
         return domainAPI;
     }
 
-    private static Feign.Builder getFeignBuilder(String apiKey, ObjectMapper mapper, HttpClient client) {
+    public StreamingInvokeClient getStreamingInvokeClient() {
+        return streamingInvokeClient;
+    }
+
+    public AsyncInvokeClient getAsyncInvokeClient() {
+        return asyncInvokeClient;
+    }
+
+    public TextInvokeClient getTextInvokeClient() {
+        return textInvokeClient;
+    }
+
+    /**
+     * @return Distinct base URLs of all APIs.
+     */
+    public Set<String> getBaseUrls() {
+        return baseUrls;
+    }
+
+    /**
+     * Opens connections to the host of the given base URL ahead of the first request, see
+     * {@link Transport#warmUp(URI, int)}.
+     */
+    public List<ConnectionTiming> warmUp(String baseUrl, int connections) throws IOException {
+        return transport.warmUp(URI.create(baseUrl), connections);
+    }
+
+    private static Feign.Builder getFeignBuilder(String apiKey, CodecRegistry codecs, Transport transport, CustomErrorDecoder errorDecoder) {
         return Feign.builder()
                 .logLevel(Logger.Level.FULL)
                 .logger(new Slf4jLogger())
                 .requestInterceptor(new ApiKeyRequestInterceptor(apiKey))
-                .encoder(new ContentTypeAwareEncoder(new JacksonEncoder(mapper), new Encoder.Default()))
-                .decoder(new ContentTypeAwareDecoder(new JacksonDecoder(mapper), new Decoder.Default()))
-                .errorDecoder(new CustomErrorDecoder(mapper))
-                .client(new ApacheHttpClient(client));
+                .encoder(new ContentTypeAwareEncoder(new JsonEncoder(codecs), new Encoder.Default()))
+                .decoder(new ContentTypeAwareDecoder(codecs, new JsonDecoder(codecs), new Decoder.Default()))
+                .errorDecoder(errorDecoder)
+                .client(transport.getFeignClient());
     }
 }
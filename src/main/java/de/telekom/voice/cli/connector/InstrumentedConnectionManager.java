@@ -0,0 +1,316 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool which counts how often connections are leased and newly opened, and how long requests wait for a
+ * connection when the pool is exhausted. Connections can be {@link #warmUp(HttpRoute, int, int) opened in advance}.
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+    private static final String SOCKET_NANOS = InstrumentedConnectionManager.class.getName() + ".socket-nanos";
+    private static final String TLS_NANOS = InstrumentedConnectionManager.class.getName() + ".tls-nanos";
+
+    private final Duration keepAlive;
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder leaseWaitNanos = new LongAdder();
+    private final LongAccumulator maxLeaseWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public InstrumentedConnectionManager(ConnectionPoolSettings settings) {
+        super(socketFactories());
+        this.keepAlive = settings.getKeepAlive();
+        setMaxTotal(settings.getMaxConnections());
+        setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        setValidateAfterInactivity((int) settings.getValidateAfterInactivity().toMillis());
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(timeout, unit);
+                    leases.increment();
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    timeouts.increment();
+                    throw e;
+                } finally {
+                    long wait = System.nanoTime() - start;
+                    leaseWaitNanos.add(wait);
+                    maxLeaseWaitNanos.accumulate(wait);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        connects.increment();
+        super.connect(connection, route, connectTimeout, context);
+    }
+
+    /**
+     * Opens connections to the given route and returns them to the pool, so later requests find them open.
+     *
+     * @param connections   Number of connections which should be open, limited by the maximum per route.
+     * @param timeoutMillis Timeout for waiting for a connection from the pool and for connecting.
+     * @return Timings of the newly opened connections.
+     * @throws IOException If a connection can't be opened.
+     */
+    public List<ConnectionTiming> warmUp(HttpRoute route, int connections, int timeoutMillis) throws IOException {
+        int limit = Math.min(connections, Math.min(getMaxPerRoute(route), getMaxTotal()));
+        List<ConnectionTiming> timings = new ArrayList<>();
+        List<HttpClientConnection> leased = new ArrayList<>();
+        try {
+            // All connections are held until the end, otherwise the same one would be handed out again
+            for (int i = 0; i < limit; i++) {
+                HttpClientConnection connection = lease(route, timeoutMillis);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    timings.add(open(connection, route, timeoutMillis));
+                }
+            }
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                releaseConnection(connection, null, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return timings;
+    }
+
+    private HttpClientConnection lease(HttpRoute route, int timeoutMillis) throws IOException {
+        try {
+            // Not counted as a lease, the requests which get the connection later are
+            return super.requestConnection(route, null).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + route);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to get a connection to " + route, e.getCause());
+        }
+    }
+
+    private ConnectionTiming open(HttpClientConnection connection, HttpRoute route, int timeoutMillis) throws IOException {
+        HttpClientContext context = HttpClientContext.create();
+        long start = System.nanoTime();
+        super.connect(connection, route, timeoutMillis, context);
+        long connectNanos = System.nanoTime() - start;
+        routeComplete(connection, route, context);
+
+        // The socket factories only see the resolved address, the rest of the time went into the DNS lookup
+        long socketNanos = nanos(context, SOCKET_NANOS);
+        long tlsNanos = nanos(context, TLS_NANOS);
+        return new ConnectionTiming(connectNanos - socketNanos, socketNanos - tlsNanos, tlsNanos);
+    }
+
+    private static long nanos(HttpContext context, String attribute) {
+        Long nanos = (Long) context.getAttribute(attribute);
+        return nanos == null ? 0 : nanos;
+    }
+
+    public Statistics getStatistics() {
+        Map<String, PoolStats> routes = new TreeMap<>();
+        for (HttpRoute route : getRoutes()) {
+            routes.put(route.getTargetHost().toHostString(), getStats(route));
+        }
+        return new Statistics(getTotalStats(), routes, leases.sum(), timeouts.sum(), connects.sum(),
+                leaseWaitNanos.sum(), maxLeaseWaitNanos.get());
+    }
+
+    /**
+     * Resets the counters, the connections are kept.
+     */
+    public void resetStatistics() {
+        leases.reset();
+        timeouts.reset();
+        connects.reset();
+        leaseWaitNanos.reset();
+        maxLeaseWaitNanos.reset();
+    }
+
+    /**
+     * Same socket factories as the default ones, but they record how long connecting and the TLS handshake take.
+     */
+    private static Registry<ConnectionSocketFactory> socketFactories() {
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new TimingPlainSocketFactory())
+                .register("https", new TimingSslSocketFactory())
+                .build();
+    }
+
+    private static void record(@Nullable HttpContext context, String attribute, long start) {
+        if (context != null) {
+            context.setAttribute(attribute, System.nanoTime() - start);
+        }
+    }
+
+    private static class TimingPlainSocketFactory extends PlainConnectionSocketFactory {
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            record(context, SOCKET_NANOS, start);
+            return connected;
+        }
+    }
+
+    private static class TimingSslSocketFactory extends SSLConnectionSocketFactory {
+        TimingSslSocketFactory() {
+            super(SSLContexts.createDefault(), getDefaultHostnameVerifier());
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            record(context, SOCKET_NANOS, start);
+            return connected;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket layered = super.createLayeredSocket(socket, target, port, context);
+            record(context, TLS_NANOS, start);
+            return layered;
+        }
+    }
+
+    public static final class Statistics {
+        private final PoolStats total;
+        private final Map<String, PoolStats> routes;
+        private final long leases;
+        private final long timeouts;
+        private final long connects;
+        private final long leaseWaitNanos;
+        private final long maxLeaseWaitNanos;
+
+        Statistics(PoolStats total, Map<String, PoolStats> routes, long leases, long timeouts, long connects, long leaseWaitNanos, long maxLeaseWaitNanos) {
+            this.total = total;
+            this.routes = routes;
+            this.leases = leases;
+            this.timeouts = timeouts;
+            this.connects = connects;
+            this.leaseWaitNanos = leaseWaitNanos;
+            this.maxLeaseWaitNanos = maxLeaseWaitNanos;
+        }
+
+        /**
+         * @return Leased, available and pending connections of the whole pool.
+         */
+        public PoolStats getTotal() {
+            return total;
+        }
+
+        /**
+         * @return Leased, available and pending connections by target host.
+         */
+        public Map<String, PoolStats> getRoutes() {
+            return routes;
+        }
+
+        /**
+         * @return Number of connections handed out to requests.
+         */
+        public long getLeases() {
+            return leases;
+        }
+
+        /**
+         * @return Number of requests which gave up waiting for a connection.
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * @return Number of connections opened.
+         */
+        public long getConnects() {
+            return connects;
+        }
+
+        /**
+         * @return Share of the leases which reused an open connection.
+         */
+        public double getReuseRatio() {
+            return leases == 0 ? 0 : Math.max(0, leases - connects) / (double) leases;
+        }
+
+        public double getMeanLeaseWaitMillis() {
+            long requests = leases + timeouts;
+            return requests == 0 ? 0 : leaseWaitNanos / 1e6 / requests;
+        }
+
+        public double getMaxLeaseWaitMillis() {
+            return maxLeaseWaitNanos / 1e6;
+        }
+    }
+}
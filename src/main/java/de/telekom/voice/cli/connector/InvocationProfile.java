@@ -0,0 +1,75 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import javax.annotation.Nullable;
+
+/**
+ * Values of the invocation headers which only change with the login or the options, encoded once instead of for every
+ * invocation.
+ */
+public final class InvocationProfile {
+    @Nullable
+    private final String authorization;
+    private final String metadata;
+    @Nullable
+    private final String deviceCapabilities;
+
+    /**
+     * @param accessToken        Access token, null if not logged in.
+     * @param metadata           Client metadata as JSON.
+     * @param deviceCapabilities Device capabilities, null if not configured.
+     */
+    public InvocationProfile(@Nullable String accessToken, String metadata, @Nullable String deviceCapabilities) {
+        this.authorization = accessToken == null ? null : "Bearer " + accessToken;
+        this.metadata = metadata;
+        this.deviceCapabilities = deviceCapabilities;
+    }
+
+    /**
+     * @return Value of the Authorization header, null if not logged in.
+     */
+    @Nullable
+    public String getAuthorization() {
+        return authorization;
+    }
+
+    /**
+     * @return Value of the X-Client-Metadata header.
+     */
+    public String getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return Value of the X-Client-Capabilities header, null if not configured.
+     */
+    @Nullable
+    public String getDeviceCapabilities() {
+        return deviceCapabilities;
+    }
+}
@@ -40,39 +40,24 @@ public interface InvokeAPI {
     @Headers({
             "Accept: application/json",
             "Content-Type: application/json; charset=utf-8",
-            "Authorization: Bearer {token}",
+            "Authorization: {authorization}",
             "X-Client-Metadata: {metadata}",
             "X-Client-Capabilities: {deviceCapabilities}"
     })
     @RequestLine("POST /dm/api/v1/invoke/text/json?intent={intent}&skill={skill}&sessionId={sessionId}")
-    InvokeResultDto textJson(@Param("token") String accessToken, @Param("metadata") String metadata, @Param("deviceCapabilities") String deviceCapabilities,
+    InvokeResultDto textJson(@Nullable @Param("authorization") String authorization, @Param("metadata") String metadata, @Param("deviceCapabilities") String deviceCapabilities,
                              @Param("intent") boolean intent, @Param("skill") boolean skill,
                              @Nullable @Param("sessionId") String sessionId, STTRequestDto request) throws ApiException;
 
     @Headers({
             "Accept: application/json",
             "Content-Type: application/json; charset=utf-8",
-            "Authorization: Bearer {token}",
+            "Authorization: {authorization}",
             "X-Client-Metadata: {metadata}",
             "X-Client-Capabilities: {deviceCapabilities}"
     })
     @RequestLine("POST /dm/api/v1/invoke/intent/json?intent={intent}&skill={skill}&sessionId={sessionId}")
-    InvokeResultDto intentJson(@Param("token") String accessToken, @Param("metadata") String metadata, @Param("deviceCapabilities") String deviceCapabilities,
+    InvokeResultDto intentJson(@Nullable @Param("authorization") String authorization, @Param("metadata") String metadata, @Param("deviceCapabilities") String deviceCapabilities,
                                @Param("intent") boolean intent, @Param("skill") boolean skill,
                                @Nullable @Param("sessionId") String sessionId, IntentRequestDto request) throws ApiException;
-
-    @Headers({
-            "Accept: application/json",
-            "Content-Type: audio/wav",
-            "Authorization: Bearer {token}",
-            "X-Client-Metadata: {metadata}",
-            "X-Client-Capabilities: {deviceCapabilities}",
-            "X-WakeUp-Phrase: {wakeUpPhrase}"
-    })
-    @RequestLine("POST /dm/api/v1/invoke/audio/json?intent={intent}&skill={skill}&sessionId={sessionId}")
-    InvokeResultDto audioJson(@Param("token") String accessToken, @Param("metadata") String metadata, @Param("deviceCapabilities") String deviceCapabilities,
-                              @Nullable @Param("wakeUpPhrase") String wakeUpPhrase,
-                              @Param("intent") boolean intent, @Param("skill") boolean skill,
-                              @Nullable @Param("sessionId") String sessionId,
-                              byte[] audioData) throws ApiException;
 }
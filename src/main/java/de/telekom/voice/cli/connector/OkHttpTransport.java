@@ -0,0 +1,502 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import de.telekom.voice.cli.audio.AudioPayload;
+import feign.Client;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/2 transport based on OkHttp. Requests to the same host are multiplexed as streams over a single TLS
+ * connection, so concurrent requests don't need a connection and a handshake each.
+ * <p>
+ * HTTP/2 is negotiated with ALPN, which requires Java 8u252 or later. Servers that don't support it are spoken to with
+ * HTTP/1.1.
+ */
+public class OkHttpTransport implements Transport {
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final OkHttpClient client;
+    private final OkHttpClient duplexClient;
+    private final Client feignClient;
+
+    public OkHttpTransport(OkHttpClient client) {
+        this.client = client;
+        this.duplexClient = client.newBuilder().addNetworkInterceptor(OkHttpTransport::withoutDuplexOnHttp1).build();
+        this.feignClient = new feign.okhttp.OkHttpClient(client);
+    }
+
+    public static OkHttpTransport create(ConnectionPoolSettings settings) {
+        return new OkHttpTransport(newClientBuilder(settings).build());
+    }
+
+    /**
+     * OkHttp doesn't limit the number of connections, with HTTP/2 a single one per host is enough anyway. The limit
+     * per route only caps the idle connections kept open, the total limit isn't used.
+     *
+     * @return Builder for a client with the given pool settings and without timeouts for reading and writing, like
+     * the {@link ApacheTransport}.
+     */
+    public static OkHttpClient.Builder newClientBuilder(ConnectionPoolSettings settings) {
+        long keepAliveMillis = settings.getMaxIdleTime().isZero()
+                ? settings.getKeepAlive().toMillis()
+                : Math.min(settings.getKeepAlive().toMillis(), settings.getMaxIdleTime().toMillis());
+        return new OkHttpClient.Builder()
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(settings.getMaxConnectionsPerRoute(), keepAliveMillis, TimeUnit.MILLISECONDS))
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .writeTimeout(0, TimeUnit.MILLISECONDS)
+                .addInterceptor(chain -> chain.proceed(chain.request().header("User-Agent") != null
+                        ? chain.request()
+                        : chain.request().newBuilder().header("User-Agent", Connector.USER_AGENT).build()));
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public Client getFeignClient() {
+        return feignClient;
+    }
+
+    @Override
+    public Response post(URI uri, Map<String, String> headers, String contentType, AudioPayload audio) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url(uri.toURL())
+                .post(new AudioBody(audio, MediaType.get(contentType)));
+        headers.forEach(request::header);
+        return execute(request.build());
+    }
+
+    @Override
+    public Response post(URI uri, Map<String, String> headers, String contentType, byte[] body, int length) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url(uri.toURL())
+                .post(RequestBody.create(MediaType.get(contentType), body, 0, length));
+        headers.forEach(request::header);
+        return execute(request.build());
+    }
+
+    @Override
+    public Response postDuplex(URI uri, Map<String, String> headers, String contentType, AudioPayload audio) throws IOException {
+        DuplexAudioBody body = new DuplexAudioBody(audio, MediaType.get(contentType));
+        Request.Builder request = new Request.Builder()
+                .url(uri.toURL())
+                .post(body);
+        headers.forEach(request::header);
+        Call call = duplexClient.newCall(request.build());
+        body.setCall(call);
+
+        okhttp3.Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            body.stop();
+            throw body.withUploadFailure(e);
+        }
+        return new DuplexResponse(response, body);
+    }
+
+    /**
+     * Only HTTP/2 streams can send and receive at the same time, OkHttp refuses duplex bodies on HTTP/1.1
+     * connections. Once the connection is known, those get the audio as a usual body instead.
+     */
+    private static okhttp3.Response withoutDuplexOnHttp1(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        Connection connection = chain.connection();
+        if (request.body() instanceof DuplexAudioBody && connection != null
+                && connection.protocol() != Protocol.HTTP_2 && connection.protocol() != Protocol.H2_PRIOR_KNOWLEDGE) {
+            request = request.newBuilder()
+                    .method(request.method(), ((DuplexAudioBody) request.body()).toSimplex())
+                    .build();
+        }
+        return chain.proceed(request);
+    }
+
+    private Response execute(Request request) throws IOException {
+        return new OkHttpResponse(client.newCall(request).execute());
+    }
+
+    /**
+     * OkHttp can't open connections without a request, so HEAD requests are sent instead. The first one shows whether
+     * the host speaks HTTP/2, then a single connection is enough.
+     */
+    @Override
+    public List<ConnectionTiming> warmUp(URI uri, int connections) throws IOException {
+        Request request = new Request.Builder().url(uri.toURL()).head().build();
+        List<ConnectionTiming> timings = Collections.synchronizedList(new ArrayList<>());
+
+        Protocol protocol;
+        try (okhttp3.Response response = timingClient(timings, null).newCall(request).execute()) {
+            protocol = response.protocol();
+        }
+        if (connections <= 1 || protocol == Protocol.HTTP_2 || protocol == Protocol.H2_PRIOR_KNOWLEDGE) {
+            return timings;
+        }
+
+        // An HTTP/1.1 connection serves one request at a time, so concurrent requests which hold their connection
+        // until all of them have one open the remaining connections
+        CountDownLatch connected = new CountDownLatch(connections);
+        OkHttpClient warmUpClient = timingClient(timings, connected);
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                calls.add(executor.submit(() -> {
+                    warmUpClient.newCall(request).execute().close();
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while opening connections to " + uri);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return timings;
+    }
+
+    /**
+     * @param connected Latch the requests wait on after getting a connection, null to not wait.
+     * @return Client sharing the connection pool, which records the timings of newly opened connections.
+     */
+    private OkHttpClient timingClient(List<ConnectionTiming> timings, @Nullable CountDownLatch connected) {
+        OkHttpClient.Builder builder = client.newBuilder()
+                .connectTimeout(WARM_UP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .eventListenerFactory(call -> new TimingListener(timings, connected));
+        if (connected != null) {
+            builder.addNetworkInterceptor(chain -> {
+                connected.countDown();
+                try {
+                    connected.await(WARM_UP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the other connections");
+                }
+                return chain.proceed(chain.request());
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Records the phases of the connection opened by a call, events of a single call don't overlap.
+     */
+    private static class TimingListener extends EventListener {
+        private final List<ConnectionTiming> timings;
+        @Nullable
+        private final CountDownLatch connected;
+        private long dnsStart;
+        private long dnsNanos;
+        private long connectStart;
+        private long tlsStart;
+        private long tlsNanos;
+
+        TimingListener(List<ConnectionTiming> timings, @Nullable CountDownLatch connected) {
+            this.timings = timings;
+            this.connected = connected;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            dnsNanos = System.nanoTime() - dnsStart;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+            tlsNanos = 0;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, @Nullable Handshake handshake) {
+            tlsNanos = System.nanoTime() - tlsStart;
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, @Nullable Protocol protocol) {
+            timings.add(new ConnectionTiming(dnsNanos, System.nanoTime() - connectStart - tlsNanos, tlsNanos));
+        }
+
+        @Override
+        public void callFailed(Call call, IOException e) {
+            // Don't keep the other requests waiting for a connection which will never come
+            if (connected != null) {
+                connected.countDown();
+            }
+        }
+    }
+
+    private static class OkHttpResponse implements Response {
+        private final okhttp3.Response response;
+
+        OkHttpResponse(okhttp3.Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatus() {
+            return response.code();
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public InputStream getBody() {
+            ResponseBody body = response.body();
+            return body == null ? new ByteArrayInputStream(new byte[0]) : body.byteStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+
+    /**
+     * Response which is read while its request body is uploaded. A failed upload cancels the call, so reading fails
+     * with the cause of the failed upload instead of waiting for a response which will never come.
+     */
+    private static class DuplexResponse extends OkHttpResponse {
+        private final DuplexAudioBody requestBody;
+
+        DuplexResponse(okhttp3.Response response, DuplexAudioBody requestBody) {
+            super(response);
+            this.requestBody = requestBody;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new FilterInputStream(super.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        throw requestBody.withUploadFailure(e);
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw requestBody.withUploadFailure(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            requestBody.stop();
+            super.close();
+        }
+    }
+
+    /**
+     * Body which writes the audio payload while the request is sent, as chunks with HTTP/1.1 or data frames with
+     * HTTP/2.
+     */
+    private static class AudioBody extends RequestBody {
+        private final AudioPayload audio;
+        private final MediaType contentType;
+
+        AudioBody(AudioPayload audio, MediaType contentType) {
+            this.audio = audio;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            audio.writeTo(sink.outputStream());
+        }
+    }
+
+    /**
+     * Audio body of an HTTP/2 stream which is written on its own thread, so OkHttp can go on to read the response
+     * while the audio is uploaded.
+     */
+    private static class DuplexAudioBody extends AudioBody {
+        private final AudioPayload audio;
+        @Nullable
+        private volatile Call call;
+        @Nullable
+        private volatile Thread uploader;
+        @Nullable
+        private volatile Exception uploadFailure;
+        private volatile boolean stopped;
+
+        DuplexAudioBody(AudioPayload audio, MediaType contentType) {
+            super(audio, contentType);
+            this.audio = audio;
+        }
+
+        void setCall(Call call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean isDuplex() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) {
+            Thread thread = new Thread(() -> upload(sink), "audio-upload");
+            thread.setDaemon(true);
+            uploader = thread;
+            thread.start();
+        }
+
+        private void upload(BufferedSink sink) {
+            try {
+                super.writeTo(sink);
+                // Only a complete upload ends the stream, otherwise the server would take the audio as complete
+                sink.close();
+            } catch (IOException | RuntimeException e) {
+                if (!stopped) {
+                    uploadFailure = e;
+                    Call call = this.call;
+                    if (call != null) {
+                        call.cancel();
+                    }
+                }
+            }
+        }
+
+        AudioBody toSimplex() {
+            return new AudioBody(audio, contentType());
+        }
+
+        /**
+         * Aborts the upload if it is still running and waits until the uploading thread has ended.
+         */
+        void stop() {
+            Thread thread = uploader;
+            if (thread == null) {
+                return;
+            }
+            if (thread.isAlive()) {
+                stopped = true;
+                Call call = this.call;
+                if (call != null) {
+                    call.cancel();
+                }
+                thread.interrupt();
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        IOException withUploadFailure(IOException e) {
+            Exception failure = uploadFailure;
+            if (failure == null) {
+                return e;
+            }
+            IOException wrapped = new IOException("Upload of the audio failed", failure);
+            wrapped.addSuppressed(e);
+            return wrapped;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import de.telekom.voice.cli.audio.AudioPayload;
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.connector.exception.TechnicalApiException;
+import de.telekom.voice.cli.connector.feign.CustomErrorDecoder;
+import org.apache.http.client.utils.URIBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Invokes with audio, streaming the audio into the request body with chunked transfer encoding (or as data frames
+ * with HTTP/2).
+ * <p>
+ * Feign only supports request bodies as byte arrays, which means the whole audio is copied into memory (and again
+ * for logging) before the upload starts. This client writes the audio straight from its source into the connection
+ * instead, so the server can start processing before the upload is complete.
+ * <p>
+ * If partial transcriptions are requested, the server answers with newline-delimited JSON: every line is an invoke
+ * result, partial ones only carry the {@code stt} field, the final one carries the {@code session}. These requests are
+ * sent with {@link Transport#postDuplex}, so the partial transcriptions are read while the audio is still uploaded.
+ * That needs HTTP/2; over HTTP/1.1 the response is only read after the whole audio has been sent.
+ */
+public class StreamingInvokeClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingInvokeClient.class);
+
+    private static final String AUDIO_PATH = "/dm/api/v1/invoke/audio/json";
+    private static final String AUDIO_CONTENT_TYPE = "audio/wav";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final CodecRegistry codecs;
+    private final Transport transport;
+    private final CustomErrorDecoder errorDecoder;
+
+    public StreamingInvokeClient(String baseUrl, String apiKey, CodecRegistry codecs, Transport transport, CustomErrorDecoder errorDecoder) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.codecs = codecs;
+        this.transport = transport;
+        this.errorDecoder = errorDecoder;
+    }
+
+    /**
+     * Same as {@code POST /dm/api/v1/invoke/audio/json}, but with a streamed body.
+     *
+     * @param partialTranscriptionListener If not null, partial transcriptions are requested and passed to this
+     *                                     listener as they arrive, on the calling thread.
+     */
+    public InvokeResultDto audioJson(InvocationProfile profile,
+                                     @Nullable String wakeUpPhrase,
+                                     boolean intent, boolean skill,
+                                     @Nullable String sessionId,
+                                     AudioPayload audio,
+                                     @Nullable PartialTranscriptionListener partialTranscriptionListener) throws ApiException {
+        boolean partialTranscriptions = partialTranscriptionListener != null;
+        URI uri = buildUri(intent, skill, sessionId, partialTranscriptions);
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", partialTranscriptions ? NDJSON_CONTENT_TYPE + ", application/json" : "application/json");
+        putIfPresent(headers, "Authorization", profile.getAuthorization());
+        headers.put("X-Client-Metadata", profile.getMetadata());
+        putIfPresent(headers, "X-Client-Capabilities", profile.getDeviceCapabilities());
+        putIfPresent(headers, "X-WakeUp-Phrase", wakeUpPhrase);
+        headers.put(ApiKeyRequestInterceptor.API_KEY_HEADER, apiKey);
+        headers.put("User-Agent", Connector.USER_AGENT);
+
+        LOGGER.debug("Streaming {} bytes of audio to {}", audio.getLength(), uri);
+
+        Transport.Response response;
+        try {
+            response = partialTranscriptions
+                    ? transport.postDuplex(uri, headers, AUDIO_CONTENT_TYPE, audio)
+                    : transport.post(uri, headers, AUDIO_CONTENT_TYPE, audio);
+        } catch (IOException e) {
+            throw new TechnicalApiException("IO exception while streaming audio", e);
+        }
+
+        try {
+            int status = response.getStatus();
+            InputStream body = response.getBody();
+            if (status >= 200 && status < 300) {
+                if (partialTranscriptions && isNdjson(response.getHeader("Content-Type"))) {
+                    return readPartialTranscriptions(body, partialTranscriptionListener);
+                }
+                return codecs.reader(InvokeResultDto.class).readValue(body);
+            }
+            throw errorDecoder.decode(status, response.getHeader(CustomErrorDecoder.HEADER_SVH_TRACE_ID), body);
+        } catch (IOException e) {
+            throw new TechnicalApiException("IO exception while reading audio invocation response", e);
+        } finally {
+            response.close();
+        }
+    }
+
+    private InvokeResultDto readPartialTranscriptions(InputStream body, PartialTranscriptionListener listener) throws IOException {
+        InvokeResultDto result = null;
+        try (MappingIterator<InvokeResultDto> results = codecs.reader(InvokeResultDto.class).readValues(body)) {
+            while (results.hasNextValue()) {
+                InvokeResultDto next = results.nextValue();
+                if (next.getSession() == null && next.getStt() != null) {
+                    listener.onPartialTranscription(next.getStt());
+                } else {
+                    result = next;
+                }
+            }
+        }
+        if (result == null) {
+            throw new IOException("Stream of partial transcriptions ended without final result");
+        }
+        return result;
+    }
+
+    private static boolean isNdjson(@Nullable String contentType) {
+        return contentType != null && contentType.startsWith(NDJSON_CONTENT_TYPE);
+    }
+
+    private URI buildUri(boolean intent, boolean skill, @Nullable String sessionId, boolean partialTranscriptions) {
+        try {
+            URIBuilder builder = new URIBuilder(baseUrl + AUDIO_PATH)
+                    .addParameter("intent", Boolean.toString(intent))
+                    .addParameter("skill", Boolean.toString(skill));
+            if (sessionId != null) {
+                builder.addParameter("sessionId", sessionId);
+            }
+            if (partialTranscriptions) {
+                builder.addParameter("partialTranscriptions", "true");
+            }
+            return builder.build();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid base URL " + baseUrl, e);
+        }
+    }
+
+    private static void putIfPresent(Map<String, String> headers, String name, @Nullable String value) {
+        if (value != null) {
+            headers.put(name, value);
+        }
+    }
+}
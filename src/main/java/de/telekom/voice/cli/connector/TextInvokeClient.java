@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.base.ScratchBuffer;
+import de.telekom.voice.cli.connector.dto.InvokeResultProjection;
+import de.telekom.voice.cli.connector.dto.STTRequestDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import de.telekom.voice.cli.connector.exception.TechnicalApiException;
+import de.telekom.voice.cli.connector.feign.CustomErrorDecoder;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Invokes with text on the calling thread, for load runs which invoke at a high rate.
+ * <p>
+ * Feign expands the URI, query and header templates of every request anew and copies the bodies between its own and
+ * the transport's representation, which makes up most of the memory allocated per invocation. This client sends the
+ * request straight through the {@link Transport}: the URIs without session and the constant headers are built once,
+ * the per-user headers come pre-encoded with the {@link InvocationProfile}, request and response bodies go through
+ * the {@link ScratchBuffer} of the calling thread.
+ */
+public class TextInvokeClient {
+    private static final String TEXT_PATH = "/dm/api/v1/invoke/text/json";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final CodecRegistry codecs;
+    private final Transport transport;
+    private final CustomErrorDecoder errorDecoder;
+    /**
+     * URIs by intent and skill flag, see {@link #uriIndex(boolean, boolean)}.
+     */
+    private final String[] uris = new String[4];
+    private final Map<String, String> constantHeaders;
+
+    public TextInvokeClient(String baseUrl, String apiKey, CodecRegistry codecs, Transport transport, CustomErrorDecoder errorDecoder) {
+        this.codecs = codecs;
+        this.transport = transport;
+        this.errorDecoder = errorDecoder;
+        for (boolean intent : new boolean[]{false, true}) {
+            for (boolean skill : new boolean[]{false, true}) {
+                uris[uriIndex(intent, skill)] = baseUrl + TEXT_PATH + "?intent=" + intent + "&skill=" + skill;
+            }
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/json");
+        headers.put(ApiKeyRequestInterceptor.API_KEY_HEADER, apiKey);
+        headers.put("User-Agent", Connector.USER_AGENT);
+        constantHeaders = Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Same as {@link InvokeAPI#textJson}, but only decodes what load runs need, see {@link InvokeResultProjection}.
+     */
+    public InvokeResultProjection textJsonProjected(InvocationProfile profile, boolean intent, boolean skill,
+                                                    @Nullable String sessionId, STTRequestDto request) throws ApiException {
+        URI uri = buildUri(intent, skill, sessionId);
+        Map<String, String> headers = new LinkedHashMap<>(constantHeaders);
+        if (profile.getAuthorization() != null) {
+            headers.put("Authorization", profile.getAuthorization());
+        }
+        headers.put("X-Client-Metadata", profile.getMetadata());
+        if (profile.getDeviceCapabilities() != null) {
+            headers.put("X-Client-Capabilities", profile.getDeviceCapabilities());
+        }
+
+        Transport.Response response;
+        try {
+            ScratchBuffer body = ScratchBuffer.forCurrentThread();
+            codecs.writer(STTRequestDto.class).writeValue(body, request);
+            response = transport.post(uri, headers, JSON_CONTENT_TYPE, body.getArray(), body.getLength());
+        } catch (IOException e) {
+            throw new TechnicalApiException("IO exception while invoking with text", e);
+        }
+
+        try {
+            int status = response.getStatus();
+            if (status >= 200 && status < 300) {
+                ScratchBuffer body = ScratchBuffer.forCurrentThread().readFrom(response.getBody());
+                return codecs.reader(InvokeResultProjection.class).readValue(body.getArray(), 0, body.getLength());
+            }
+            throw errorDecoder.decode(status, response.getHeader(CustomErrorDecoder.HEADER_SVH_TRACE_ID), response.getBody());
+        } catch (IOException e) {
+            throw new TechnicalApiException("IO exception while reading text invocation response", e);
+        } finally {
+            response.close();
+        }
+    }
+
+    private URI buildUri(boolean intent, boolean skill, @Nullable String sessionId) {
+        String uri = uris[uriIndex(intent, skill)];
+        if (sessionId == null) {
+            return URI.create(uri);
+        }
+        try {
+            return URI.create(uri + "&sessionId=" + URLEncoder.encode(sessionId, StandardCharsets.UTF_8.name()));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int uriIndex(boolean intent, boolean skill) {
+        return (intent ? 2 : 0) + (skill ? 1 : 0);
+    }
+}
@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import de.telekom.voice.cli.audio.AudioPayload;
+import feign.Client;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP client shared by all connectors.
+ */
+public interface Transport {
+    /**
+     * @return Client for the Feign APIs.
+     */
+    Client getFeignClient();
+
+    /**
+     * Posts audio, writing it into the request body while the request is sent.
+     *
+     * @param uri         Target.
+     * @param headers     Request headers.
+     * @param contentType Content type of the body.
+     * @param audio       Body.
+     * @return Response, must be closed to release the connection.
+     * @throws IOException If the request fails.
+     */
+    Response post(URI uri, Map<String, String> headers, String contentType, AudioPayload audio) throws IOException;
+
+    /**
+     * Posts audio like {@link #post(URI, Map, String, AudioPayload)}, but returns as soon as the response headers
+     * arrive while the audio is still written on another thread, so the response body can be read during the upload.
+     * <p>
+     * Sending and receiving at the same time needs an HTTP/2 stream. Transports and connections which can't do that
+     * upload the whole audio before they return, like {@link #post(URI, Map, String, AudioPayload)}.
+     *
+     * @param uri         Target.
+     * @param headers     Request headers.
+     * @param contentType Content type of the body.
+     * @param audio       Body.
+     * @return Response, must be closed to release the connection. Closing it before the upload is complete aborts
+     * the upload.
+     * @throws IOException If the request fails.
+     */
+    default Response postDuplex(URI uri, Map<String, String> headers, String contentType, AudioPayload audio) throws IOException {
+        return post(uri, headers, contentType, audio);
+    }
+
+    /**
+     * Posts a body held in memory. The body is only read until this method returns, so its array can be reused for
+     * the next request.
+     *
+     * @param uri         Target.
+     * @param headers     Request headers.
+     * @param contentType Content type of the body.
+     * @param body        Array holding the body.
+     * @param length      Length of the body, starting at the beginning of the array.
+     * @return Response, must be closed to release the connection.
+     * @throws IOException If the request fails.
+     */
+    Response post(URI uri, Map<String, String> headers, String contentType, byte[] body, int length) throws IOException;
+
+    /**
+     * Opens connections to the host of the given URI ahead of the first request, so requests don't pay for the DNS
+     * lookup and the TCP and TLS handshakes.
+     *
+     * @param uri         Any URI of the host.
+     * @param connections Number of connections which should be open. A single connection is opened if the host speaks
+     *                    HTTP/2, as it multiplexes all requests.
+     * @return Timings of the newly opened connections, connections which were already open aren't included.
+     * @throws IOException If a connection can't be opened.
+     */
+    List<ConnectionTiming> warmUp(URI uri, int connections) throws IOException;
+
+    /**
+     * Response of a streamed request.
+     */
+    interface Response extends Closeable {
+        int getStatus();
+
+        @Nullable
+        String getHeader(String name);
+
+        InputStream getBody() throws IOException;
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,58 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * HTTP versions the connectors can use.
+ */
+public enum TransportType {
+    /**
+     * HTTP/1.1 via Apache HttpClient, one connection per request in flight.
+     */
+    HTTP1,
+    /**
+     * HTTP/2 via OkHttp, many requests multiplexed over a single connection per host. Falls back to HTTP/1.1 if the
+     * server doesn't negotiate HTTP/2.
+     */
+    HTTP2;
+
+    /**
+     * @return Type with the given name (case-insensitive), or null if there is none.
+     */
+    @Nullable
+    public static TransportType parse(String name) {
+        for (TransportType type : values()) {
+            if (type.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
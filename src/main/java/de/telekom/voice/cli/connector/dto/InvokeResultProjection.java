@@ -0,0 +1,324 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The parts of an {@link InvokeResultDto} a load run needs, read with a token parser instead of binding the whole
+ * response.
+ * <p>
+ * The text, the status, the session and the name, type and local flag of the skill are read right away. The
+ * transcriptions, the intent and the skill data are only kept as raw JSON and decoded when they are accessed. If the
+ * response is parsed from a byte array, the raw JSON is sliced out of it without even tokenizing it.
+ */
+@JsonDeserialize(using = InvokeResultProjection.Deserializer.class)
+public final class InvokeResultProjection {
+    private static final TypeReference<Map<String, Object>> SKILL_DATA_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final ObjectCodec codec;
+    private String text;
+    private String status;
+    private String cardId;
+    private boolean hasSession;
+    private String sessionId;
+    private Boolean sessionFinished;
+    private boolean hasSkill;
+    private String skillName;
+    private String skillResultType;
+    private Boolean skillLocal;
+    private byte[] stt;
+    private byte[] sttCandidates;
+    private byte[] intent;
+    private byte[] skillData;
+
+    private InvokeResultProjection(ObjectCodec codec) {
+        this.codec = codec;
+    }
+
+    @Nullable
+    public String getText() {
+        return text;
+    }
+
+    @Nullable
+    public String getStatus() {
+        return status;
+    }
+
+    @Nullable
+    public String getCardId() {
+        return cardId;
+    }
+
+    /**
+     * @return True if the response contains a session, as it should.
+     */
+    public boolean hasSession() {
+        return hasSession;
+    }
+
+    @Nullable
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Same as {@link SessionDto#isFinished()}.
+     */
+    public boolean isSessionFinished() {
+        return sessionFinished != null && sessionFinished;
+    }
+
+    @Nullable
+    public String getSkillName() {
+        return skillName;
+    }
+
+    @Nullable
+    public String getSkillResultType() {
+        return skillResultType;
+    }
+
+    public boolean isSkillLocal() {
+        return skillLocal != null && skillLocal;
+    }
+
+    /**
+     * Decodes the transcription on every call.
+     */
+    @Nullable
+    public STTResultDto getStt() {
+        return decode(stt, STTResultDto.class);
+    }
+
+    /**
+     * Decodes the transcription candidates on every call.
+     */
+    @Nullable
+    public STTResultsDto getSttCandidates() {
+        return decode(sttCandidates, STTResultsDto.class);
+    }
+
+    /**
+     * Decodes the intent on every call.
+     */
+    @Nullable
+    public InvokeResultDto.InvokeIntentDto getIntent() {
+        return decode(intent, InvokeResultDto.InvokeIntentDto.class);
+    }
+
+    /**
+     * Decodes the skill data on every call.
+     */
+    @Nullable
+    public Map<String, Object> getSkillData() {
+        if (skillData == null) {
+            return null;
+        }
+        try (JsonParser parser = codec.getFactory().createParser(skillData)) {
+            return codec.readValue(parser, SKILL_DATA_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode skill data", e);
+        }
+    }
+
+    /**
+     * @return Fully decoded result, e.g. for printing it.
+     */
+    public InvokeResultDto toDto() {
+        SkillResultDto skill = hasSkill ? new SkillResultDto(skillName, skillResultType, getSkillData(), skillLocal) : null;
+        SessionDto session = hasSession ? new SessionDto(sessionId, sessionFinished, null) : null;
+        return new InvokeResultDto(text, getStt(), getSttCandidates(), getIntent(), skill, cardId, session, status);
+    }
+
+    @Nullable
+    private <T> T decode(@Nullable byte[] json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try (JsonParser parser = codec.getFactory().createParser(json)) {
+            return codec.readValue(parser, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode " + type.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("text", text)
+                .append("status", status)
+                .append("sessionId", sessionId)
+                .append("sessionFinished", sessionFinished)
+                .append("skillName", skillName)
+                .toString();
+    }
+
+    static final class Deserializer extends StdDeserializer<InvokeResultProjection> {
+        Deserializer() {
+            super(InvokeResultProjection.class);
+        }
+
+        @Override
+        public InvokeResultProjection deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartObjectToken()) {
+                return (InvokeResultProjection) context.handleUnexpectedToken(InvokeResultProjection.class, parser);
+            }
+
+            InvokeResultProjection result = new InvokeResultProjection(parser.getCodec());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "text":
+                        result.text = parser.getValueAsString();
+                        break;
+                    case "status":
+                        result.status = parser.getValueAsString();
+                        break;
+                    case "cardId":
+                        result.cardId = parser.getValueAsString();
+                        break;
+                    case "session":
+                        readSession(parser, result);
+                        break;
+                    case "skill":
+                        readSkill(parser, result);
+                        break;
+                    case "stt":
+                        result.stt = copy(parser);
+                        break;
+                    case "sttCandidates":
+                        result.sttCandidates = copy(parser);
+                        break;
+                    case "intent":
+                        result.intent = copy(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return result;
+        }
+
+        private static void readSession(JsonParser parser, InvokeResultProjection result) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+            result.hasSession = true;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("id".equals(field)) {
+                    result.sessionId = parser.getValueAsString();
+                } else if ("finished".equals(field)) {
+                    result.sessionFinished = readBoolean(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private static void readSkill(JsonParser parser, InvokeResultProjection result) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+            result.hasSkill = true;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name":
+                        result.skillName = parser.getValueAsString();
+                        break;
+                    case "resultType":
+                        result.skillResultType = parser.getValueAsString();
+                        break;
+                    case "local":
+                        result.skillLocal = readBoolean(parser);
+                        break;
+                    case "data":
+                        result.skillData = copy(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        @Nullable
+        private static Boolean readBoolean(JsonParser parser) throws IOException {
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsBoolean();
+        }
+
+        /**
+         * Copies the current value without binding it.
+         */
+        @Nullable
+        private static byte[] copy(JsonParser parser) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+
+            JsonLocation start = parser.getTokenLocation();
+            if (start.getSourceRef() instanceof byte[] && start.getByteOffset() >= 0 && token.isStructStart()) {
+                // The parser stops right after the closing bracket
+                parser.skipChildren();
+                byte[] source = (byte[]) start.getSourceRef();
+                return Arrays.copyOfRange(source, (int) start.getByteOffset(), (int) parser.getCurrentLocation().getByteOffset());
+            }
+
+            ByteArrayBuilder bytes = new ByteArrayBuilder();
+            try (JsonGenerator generator = parser.getCodec().getFactory().createGenerator(bytes)) {
+                generator.copyCurrentStructure(parser);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
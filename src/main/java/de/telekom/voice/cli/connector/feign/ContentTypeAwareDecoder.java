@@ -27,8 +27,7 @@
 package de.telekom.voice.cli.connector.feign;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import de.telekom.voice.cli.base.CodecRegistry;
 import feign.FeignException;
 import feign.Response;
 import feign.codec.DecodeException;
@@ -48,14 +47,14 @@ import java.util.Collection;
  * This decoder supports multiple decoders which are selected on the Content-Type header.
  */
 public class ContentTypeAwareDecoder implements Decoder {
-    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-
     private static final String JSON = "application/json";
 
+    private final CodecRegistry codecs;
     private final Decoder jsonDecoder;
     private final Decoder defaultDecoder;
 
-    public ContentTypeAwareDecoder(Decoder jsonDecoder, Decoder defaultDecoder) {
+    public ContentTypeAwareDecoder(CodecRegistry codecs, Decoder jsonDecoder, Decoder defaultDecoder) {
+        this.codecs = codecs;
         this.jsonDecoder = jsonDecoder;
         this.defaultDecoder = defaultDecoder;
     }
@@ -93,8 +92,8 @@ public class ContentTypeAwareDecoder implements Decoder {
     }
 
     private String prettifyJson(InputStream body) throws IOException {
-        JsonNode node = objectMapper.readTree(body);
-        return objectMapper.writeValueAsString(node);
+        JsonNode node = codecs.reader(JsonNode.class).readValue(body);
+        return codecs.prettyWriter().writeValueAsString(node);
     }
 
     @Nullable
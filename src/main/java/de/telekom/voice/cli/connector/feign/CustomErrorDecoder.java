@@ -26,11 +26,14 @@
 
 package de.telekom.voice.cli.connector.feign;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import de.telekom.voice.cli.base.CodecRegistry;
 import de.telekom.voice.cli.connector.InvokeResponse;
 import de.telekom.voice.cli.connector.dto.ErrorResultDto;
 import de.telekom.voice.cli.connector.dto.InvokeResultDto;
+import de.telekom.voice.cli.connector.exception.ApiException;
 import de.telekom.voice.cli.connector.exception.ErrorException;
 import de.telekom.voice.cli.connector.exception.InvokeException;
 import de.telekom.voice.cli.connector.exception.TechnicalApiException;
@@ -41,6 +44,7 @@ import org.apache.commons.io.IOUtils;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Map;
@@ -49,45 +53,119 @@ public class CustomErrorDecoder implements ErrorDecoder {
 
     public static final String HEADER_SVH_TRACE_ID = "x-svh-traceid";
 
-    private final ObjectMapper mapper;
+    private final CodecRegistry codecs;
 
-    public CustomErrorDecoder(ObjectMapper mapper) {
-        this.mapper = mapper;
+    public CustomErrorDecoder(CodecRegistry codecs) {
+        this.codecs = codecs;
     }
 
-    private Exception handleError(int status, String json, String traceId) {
-        ErrorResultDto errorResultDto = tryDeserialize(json, ErrorResultDto.class);
-        if (errorResultDto != null && errorResultDto.getError() != null) {
-            return new ErrorException(status, errorResultDto.getError(), traceId);
+    /**
+     * Classifies the body by its top-level fields while buffering its tokens, then binds the buffered tokens once to
+     * the matching type, so the body is only parsed once.
+     */
+    private ApiException handleError(int status, byte[] body, @Nullable String traceId) {
+        if (!startsWithObject(body)) {
+            return new UnknownApiException(status, new String(body, StandardCharsets.UTF_8), traceId);
         }
 
-        InvokeResultDto invokeResultDto = tryDeserialize(json, InvokeResultDto.class);
-        if (invokeResultDto != null && invokeResultDto.getStatus() != null && invokeResultDto.getSession() != null && invokeResultDto.getText() != null) {
-            return new InvokeException(status, InvokeResponse.fromDto(invokeResultDto));
-        }
+        try (JsonParser parser = codecs.getFactory().createParser(body)) {
+            parser.nextToken();
+            TokenBuffer tokens = new TokenBuffer(parser);
+            tokens.writeStartObject();
+            boolean error = false;
+            boolean invokeStatus = false;
+            boolean session = false;
+            boolean text = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "error":
+                        error = value == JsonToken.START_OBJECT;
+                        break;
+                    case "status":
+                        invokeStatus = value != JsonToken.VALUE_NULL;
+                        break;
+                    case "session":
+                        session = value != JsonToken.VALUE_NULL;
+                        break;
+                    case "text":
+                        text = value != JsonToken.VALUE_NULL;
+                        break;
+                    default:
+                        break;
+                }
+                tokens.writeFieldName(field);
+                tokens.copyCurrentStructure(parser);
+            }
+            tokens.writeEndObject();
 
-        return new UnknownApiException(status, json, traceId);
+            if (error) {
+                ErrorResultDto errorResultDto = tryBind(tokens, ErrorResultDto.class);
+                if (errorResultDto != null && errorResultDto.getError() != null) {
+                    return new ErrorException(status, errorResultDto.getError(), traceId);
+                }
+            }
+            if (invokeStatus && session && text) {
+                InvokeResultDto invokeResultDto = tryBind(tokens, InvokeResultDto.class);
+                if (invokeResultDto != null) {
+                    return new InvokeException(status, InvokeResponse.fromDto(invokeResultDto));
+                }
+            }
+        } catch (IOException e) {
+            // Malformed JSON
+        }
+        return new UnknownApiException(status, new String(body, StandardCharsets.UTF_8), traceId);
     }
 
-    private <T> T tryDeserialize(String json, Class<T> clazz) {
+    @Nullable
+    private <T> T tryBind(TokenBuffer tokens, Class<T> clazz) {
         try {
-            return mapper.readValue(json, clazz);
-        } catch (JsonProcessingException e) {
+            return codecs.reader(clazz).readValue(tokens.asParser());
+        } catch (IOException e) {
             return null;
         }
     }
 
+    /**
+     * @return True if the first non-whitespace character opens an object, so bodies like HTML error pages are
+     * recognized without a failing parse.
+     */
+    private static boolean startsWithObject(byte[] body) {
+        for (byte b : body) {
+            if (b == '{') {
+                return true;
+            }
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Exception decode(String s, Response response) {
         try {
             String traceId = findTraceIdInHeader(response.headers());
-            String json = IOUtils.toString(response.body().asInputStream(), StandardCharsets.UTF_8);
-            return handleError(response.status(), json, traceId);
+            return decode(response.status(), traceId, response.body().asInputStream());
         } catch (IOException e) {
             return new TechnicalApiException("IO exception in error handling", e);
         }
     }
 
+    /**
+     * Decodes an error response which wasn't received through Feign.
+     *
+     * @param status  HTTP status code.
+     * @param traceId Trace id from the response headers.
+     * @param body    Response body.
+     * @return Exception describing the error.
+     * @throws IOException If reading the body failed.
+     */
+    public ApiException decode(int status, @Nullable String traceId, InputStream body) throws IOException {
+        return handleError(status, IOUtils.toByteArray(body), traceId);
+    }
+
     @Nullable
     private static String findTraceIdInHeader(Map<String, Collection<String>> headers) {
         Collection<String> headerValues = headers.get(HEADER_SVH_TRACE_ID);
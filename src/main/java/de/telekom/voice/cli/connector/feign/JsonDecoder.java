@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.connector.feign;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import de.telekom.voice.cli.base.CodecRegistry;
+import de.telekom.voice.cli.base.ScratchBuffer;
+import feign.Response;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Decodes JSON bodies like Feign's JacksonDecoder, but with the readers of the {@link CodecRegistry} and from bytes
+ * instead of characters. The body is read completely first into the {@link ScratchBuffer} of the calling thread,
+ * parsers are fastest on arrays and projections like
+ * {@link de.telekom.voice.cli.connector.dto.InvokeResultProjection} can copy slices of it.
+ */
+public class JsonDecoder implements Decoder {
+    private final CodecRegistry codecs;
+
+    public JsonDecoder(CodecRegistry codecs) {
+        this.codecs = codecs;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null) {
+            return null;
+        }
+
+        ScratchBuffer body = ScratchBuffer.forCurrentThread().readFrom(response.body().asInputStream());
+        if (body.getLength() == 0) {
+            return null;
+        }
+
+        try {
+            return codecs.reader(type).readValue(body.getArray(), 0, body.getLength());
+        } catch (RuntimeJsonMappingException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the intended send times of an open-loop load run, given as a list of {@link Stage}s.
+ * <p>
+ * The cumulative number of arrivals is the integral of the (piecewise linear) rate. The k-th request is due at the
+ * time this integral reaches k. The send times are therefore independent of how long the requests take.
+ * <p>
+ * Not thread-safe.
+ */
+public class ArrivalSchedule {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final List<Stage> stages;
+
+    private int stageIndex;
+    private double stageStartRate;
+    private double stageStartNanos;
+    private double arrivalsAtStageStart;
+    private long arrivals;
+
+    public ArrivalSchedule(List<Stage> stages) {
+        this.stages = new ArrayList<>(stages);
+    }
+
+    /**
+     * @return Offset of the next intended send time from the start of the run in nanoseconds, or -1 if the schedule
+     * is exhausted.
+     */
+    public long nextArrivalNanos() {
+        long k = arrivals + 1;
+
+        while (stageIndex < stages.size()) {
+            Stage stage = stages.get(stageIndex);
+            double seconds = stage.getDuration().toNanos() / NANOS_PER_SECOND;
+            double arrivalsInStage = (stageStartRate + stage.getTargetRate()) / 2 * seconds;
+
+            if (k <= arrivalsAtStageStart + arrivalsInStage && arrivalsInStage > 0) {
+                double offsetSeconds = solve(stageStartRate, stage.getTargetRate(), seconds, k - arrivalsAtStageStart);
+                arrivals = k;
+                return (long) (stageStartNanos + offsetSeconds * NANOS_PER_SECOND);
+            }
+
+            stageIndex++;
+            stageStartRate = stage.getTargetRate();
+            stageStartNanos += stage.getDuration().toNanos();
+            arrivalsAtStageStart += arrivalsInStage;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Planned duration of the whole run in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return stages.stream().mapToLong(stage -> stage.getDuration().toNanos()).sum();
+    }
+
+    /**
+     * @return Number of planned arrivals of the whole run.
+     */
+    public long getTotalArrivals() {
+        double total = 0;
+        double rate = 0;
+        for (Stage stage : stages) {
+            total += (rate + stage.getTargetRate()) / 2 * stage.getDuration().toNanos() / NANOS_PER_SECOND;
+            rate = stage.getTargetRate();
+        }
+        return (long) Math.floor(total);
+    }
+
+    /**
+     * Solves {@code r0 * t + (r1 - r0) / (2 * d) * t^2 = n} for t, i.e. the time within a stage at which the n-th
+     * arrival of this stage is due.
+     */
+    private static double solve(double r0, double r1, double d, double n) {
+        double a = (r1 - r0) / (2 * d);
+        if (Math.abs(a) < 1e-12) {
+            return n / r0;
+        }
+        double discriminant = Math.max(0, r0 * r0 + 4 * a * n);
+        return Math.min(d, (-r0 + Math.sqrt(discriminant)) / (2 * a));
+    }
+}
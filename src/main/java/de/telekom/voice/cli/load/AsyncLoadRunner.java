@@ -0,0 +1,142 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import de.telekom.voice.cli.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs virtual users in a closed loop like the {@link LoadRunner}, but with non-blocking invocations.
+ * <p>
+ * A virtual user is a chain of futures instead of a thread: its next invocation is issued from the completion of the
+ * previous one. Any number of virtual users can therefore be driven by the few I/O threads of the client. Every
+ * virtual user works on its own {@link Context#fork() forked} context.
+ */
+public class AsyncLoadRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLoadRunner.class);
+
+    /**
+     * Runs the load and blocks until all virtual users are done.
+     *
+     * @param context    Context the virtual user contexts are forked from.
+     * @param users      Number of virtual users.
+     * @param limit      When to stop.
+     * @param invocation Invocation issued by the virtual users.
+     * @return Result.
+     * @throws InterruptedException If interrupted while waiting for the virtual users, no further invocations are
+     *                              issued then.
+     */
+    public LoadResult run(Context context, int users, LoadLimit limit, AsyncInvocation invocation) throws InterruptedException {
+        LoadRecorder recorder = new LoadRecorder(LatencyStatistics.closedLoop());
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        long start = System.nanoTime();
+        long deadline = limit.getDuration() == null ? Long.MAX_VALUE : start + limit.getDuration().toNanos();
+        CompletableFuture<?>[] done = new CompletableFuture<?>[users];
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(context.fork(), limit.getIterations(), deadline, invocation, recorder, stopped);
+            user.next();
+            done[i] = user.done;
+        }
+        try {
+            CompletableFuture.allOf(done).get();
+        } catch (ExecutionException e) {
+            LOGGER.error("Virtual user died", e.getCause());
+        } finally {
+            stopped.set(true);
+        }
+
+        return recorder.toResult(users, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static final class VirtualUser {
+        private final Context context;
+        private final long iterations;
+        private final long deadline;
+        private final AsyncInvocation invocation;
+        private final LoadRecorder recorder;
+        private final AtomicBoolean stopped;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long iteration;
+
+        VirtualUser(Context context, long iterations, long deadline, AsyncInvocation invocation, LoadRecorder recorder, AtomicBoolean stopped) {
+            this.context = context;
+            this.iterations = iterations;
+            this.deadline = deadline;
+            this.invocation = invocation;
+            this.recorder = recorder;
+            this.stopped = stopped;
+        }
+
+        /**
+         * Issues invocations until one doesn't complete immediately, its completion continues the loop. Invocations
+         * failing immediately would otherwise nest a call per iteration.
+         */
+        void next() {
+            while (iteration < iterations && System.nanoTime() < deadline && !stopped.get()) {
+                iteration++;
+                long start = System.nanoTime();
+                CompletableFuture<?> future;
+                try {
+                    future = invocation.invoke(context);
+                } catch (RuntimeException e) {
+                    record(start, e);
+                    continue;
+                }
+
+                if (!future.isDone()) {
+                    future.whenComplete((result, e) -> {
+                        record(start, e);
+                        next();
+                    });
+                    return;
+                }
+                record(start, future.handle((result, e) -> e).join());
+            }
+            done.complete(null);
+        }
+
+        private void record(long start, Throwable failure) {
+            long end = System.nanoTime();
+            if (failure == null) {
+                recorder.success();
+            } else {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                LOGGER.debug("Invocation of virtual user failed", cause);
+                recorder.failure(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+            }
+            recorder.latency(start, start, end);
+        }
+    }
+}
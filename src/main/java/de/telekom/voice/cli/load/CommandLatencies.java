@@ -0,0 +1,57 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latency statistics of all commands executed in the client, by command name, and the real-time factors of the audio
+ * invocations.
+ */
+public class CommandLatencies {
+    private final Map<String, LatencyStatistics> latencies = new TreeMap<>();
+    private final RealTimeFactors realTimeFactors = new RealTimeFactors();
+
+    public synchronized LatencyStatistics forCommand(String command) {
+        return latencies.computeIfAbsent(command, name -> LatencyStatistics.closedLoop());
+    }
+
+    public synchronized Map<String, LatencyStatistics> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(latencies));
+    }
+
+    public RealTimeFactors getRealTimeFactors() {
+        return realTimeFactors;
+    }
+
+    public synchronized void reset() {
+        latencies.clear();
+        realTimeFactors.reset();
+    }
+}
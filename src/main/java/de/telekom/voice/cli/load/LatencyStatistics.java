@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of invocations with microsecond resolution.
+ * <p>
+ * Backed by HDR histograms, which have a fixed memory footprint, don't allocate while recording, are safe to record
+ * into from multiple threads and can be merged.
+ * <p>
+ * Two distributions are kept: the service time measures from the actual send time, the response time from the
+ * intended send time. If the sender falls behind its schedule (coordinated omission), only the latter shows the
+ * delay. For closed-loop runs there is no schedule, so the response time is derived from the service time with
+ * {@link Histogram#copyCorrectedForCoordinatedOmission(long)}, using the median service time as expected interval.
+ */
+public class LatencyStatistics {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final boolean openLoop;
+    private final Histogram serviceTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram responseTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private LatencyStatistics(boolean openLoop) {
+        this.openLoop = openLoop;
+    }
+
+    /**
+     * @return Statistics for invocations without intended send times, e.g. closed-loop runs.
+     */
+    public static LatencyStatistics closedLoop() {
+        return new LatencyStatistics(false);
+    }
+
+    /**
+     * @return Statistics for invocations with intended send times, e.g. open-loop runs.
+     */
+    public static LatencyStatistics openLoop() {
+        return new LatencyStatistics(true);
+    }
+
+    /**
+     * Records an invocation without intended send time.
+     *
+     * @param startNanos Actual send time, from {@link System#nanoTime()}.
+     * @param endNanos   Time the response was received, from {@link System#nanoTime()}.
+     */
+    public void record(long startNanos, long endNanos) {
+        record(startNanos, startNanos, endNanos);
+    }
+
+    /**
+     * Records an invocation.
+     *
+     * @param intendedStartNanos Intended send time, from {@link System#nanoTime()}.
+     * @param startNanos         Actual send time, from {@link System#nanoTime()}.
+     * @param endNanos           Time the response was received, from {@link System#nanoTime()}.
+     */
+    public void record(long intendedStartNanos, long startNanos, long endNanos) {
+        serviceTimes.recordValue(toMicros(endNanos - startNanos));
+        if (openLoop) {
+            responseTimes.recordValue(toMicros(endNanos - intendedStartNanos));
+        }
+    }
+
+    /**
+     * Merges the given statistics into this one.
+     *
+     * @param other Other statistics.
+     */
+    public void add(LatencyStatistics other) {
+        serviceTimes.add(other.serviceTimes);
+        responseTimes.add(other.responseTimes);
+    }
+
+    public void reset() {
+        serviceTimes.reset();
+        responseTimes.reset();
+    }
+
+    public boolean isOpenLoop() {
+        return openLoop;
+    }
+
+    public long getCount() {
+        return serviceTimes.getTotalCount();
+    }
+
+    /**
+     * @return Copy of the service time distribution in microseconds.
+     */
+    public Histogram getServiceTimes() {
+        return serviceTimes.copy();
+    }
+
+    /**
+     * @return Copy of the coordinated-omission-corrected response time distribution in microseconds.
+     */
+    public Histogram getResponseTimes() {
+        if (openLoop) {
+            return responseTimes.copy();
+        }
+        return serviceTimes.copyCorrectedForCoordinatedOmission(serviceTimes.getValueAtPercentile(50));
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
@@ -0,0 +1,74 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Determines when a virtual user stops: either after a number of iterations or after a duration.
+ */
+public final class LoadLimit {
+    private final long iterations;
+    @Nullable
+    private final Duration duration;
+
+    private LoadLimit(long iterations, @Nullable Duration duration) {
+        this.iterations = iterations;
+        this.duration = duration;
+    }
+
+    /**
+     * @param iterations Number of invocations per virtual user.
+     * @return Limit.
+     */
+    public static LoadLimit iterations(long iterations) {
+        return new LoadLimit(iterations, null);
+    }
+
+    /**
+     * @param duration Duration of the run.
+     * @return Limit.
+     */
+    public static LoadLimit duration(Duration duration) {
+        return new LoadLimit(Long.MAX_VALUE, duration);
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    @Nullable
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return duration != null ? duration.toString() : iterations + " iterations per user";
+    }
+}
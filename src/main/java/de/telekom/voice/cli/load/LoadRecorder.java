@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe collector of invocation outcomes during a load run.
+ */
+class LoadRecorder {
+    private final LatencyStatistics latencies;
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    LoadRecorder(LatencyStatistics latencies) {
+        this.latencies = latencies;
+    }
+
+    void latency(long intendedStartNanos, long startNanos, long endNanos) {
+        latencies.record(intendedStartNanos, startNanos, endNanos);
+    }
+
+    void success() {
+        successes.increment();
+    }
+
+    void failure(Exception e) {
+        failures.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    LoadResult toResult(int users, Duration elapsed) {
+        Map<String, Long> failureCounts = new HashMap<>();
+        failures.forEach((type, count) -> failureCounts.put(type, count.sum()));
+        return new LoadResult(users, successes.sum(), failureCounts, dropped.sum(), latencies, elapsed);
+    }
+}
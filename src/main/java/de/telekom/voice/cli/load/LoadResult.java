@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a load run.
+ */
+public class LoadResult {
+    private final int users;
+    private final long successes;
+    private final Map<String, Long> failures;
+    private final long dropped;
+    private final LatencyStatistics latencies;
+    private final Duration elapsed;
+
+    public LoadResult(int users, long successes, Map<String, Long> failures, long dropped, LatencyStatistics latencies, Duration elapsed) {
+        this.users = users;
+        this.successes = successes;
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+        this.dropped = dropped;
+        this.latencies = latencies;
+        this.elapsed = elapsed;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * @return Number of failed invocations, by exception type.
+     */
+    public Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    public long getTotalFailures() {
+        return failures.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getTotal() {
+        return successes + getTotalFailures();
+    }
+
+    /**
+     * @return Number of scheduled invocations which were never sent, because no worker was available in time.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public LatencyStatistics getLatencies() {
+        return latencies;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return Completed invocations per second.
+     */
+    public double getThroughput() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : getTotal() * 1e9 / nanos;
+    }
+}
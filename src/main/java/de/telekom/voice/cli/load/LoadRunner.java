@@ -0,0 +1,127 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs virtual users in a closed loop: each virtual user issues its next invocation as soon as the previous one
+ * completed.
+ * <p>
+ * Every virtual user runs on its own thread and works on its own {@link Context#fork() forked} context.
+ */
+public class LoadRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadRunner.class);
+
+    /**
+     * Runs the load and blocks until all virtual users are done.
+     *
+     * @param context    Context the virtual user contexts are forked from.
+     * @param users      Number of virtual users.
+     * @param limit      When to stop.
+     * @param invocation Invocation issued by the virtual users.
+     * @return Result.
+     * @throws InterruptedException If interrupted while waiting for the virtual users.
+     */
+    public LoadResult run(Context context, int users, LoadLimit limit, Invocation invocation) throws InterruptedException {
+        LoadRecorder recorder = new LoadRecorder(LatencyStatistics.closedLoop());
+
+        ExecutorService executor = Executors.newFixedThreadPool(users, new VirtualUserThreadFactory());
+        long start = System.nanoTime();
+        long deadline = limit.getDuration() == null ? Long.MAX_VALUE : start + limit.getDuration().toNanos();
+        try {
+            List<Future<?>> futures = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                Context userContext = context.fork();
+                futures.add(executor.submit(() -> runUser(userContext, limit.getIterations(), deadline, invocation, recorder)));
+            }
+            for (Future<?> future : futures) {
+                waitFor(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return recorder.toResult(users, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void runUser(Context context, long iterations, long deadline, Invocation invocation, LoadRecorder recorder) {
+        for (long i = 0; i < iterations && System.nanoTime() < deadline && !Thread.currentThread().isInterrupted(); i++) {
+            long start = System.nanoTime();
+            try {
+                invocation.invoke(context);
+                recorder.success();
+            } catch (ApiException | RuntimeException e) {
+                LOGGER.debug("Invocation of virtual user failed", e);
+                recorder.failure(e);
+            }
+            long end = System.nanoTime();
+            recorder.latency(start, start, end);
+        }
+    }
+
+    private static void waitFor(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            LOGGER.error("Virtual user died", e.getCause());
+        }
+    }
+
+    static class VirtualUserThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        VirtualUserThreadFactory() {
+            this("virtual-user-");
+        }
+
+        VirtualUserThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
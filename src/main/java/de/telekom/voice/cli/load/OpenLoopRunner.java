@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import de.telekom.voice.cli.Context;
+import de.telekom.voice.cli.connector.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs an open-loop load: invocations are issued at the send times of an {@link ArrivalSchedule}, independent of
+ * how long earlier invocations take. A slow server therefore doesn't throttle the load, but builds up a queue.
+ * <p>
+ * Invocations are executed by a fixed set of workers, each with its own {@link Context#fork() forked} context. If all
+ * workers are busy, due invocations wait in a bounded queue. If this queue is full, the invocation is dropped.
+ */
+public class OpenLoopRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenLoopRunner.class);
+
+    /**
+     * Maximum number of due invocations waiting for a free worker, per worker.
+     */
+    private static final int QUEUE_SIZE_PER_WORKER = 100;
+
+    /**
+     * Runs the load and blocks until the schedule is exhausted and all invocations are done.
+     *
+     * @param context    Context the worker contexts are forked from.
+     * @param workers    Number of workers, i.e. the maximum number of concurrent invocations.
+     * @param schedule   Intended send times.
+     * @param invocation Invocation issued at every send time.
+     * @return Result.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public LoadResult run(Context context, int workers, ArrivalSchedule schedule, Invocation invocation) throws InterruptedException {
+        LoadRecorder recorder = new LoadRecorder(LatencyStatistics.openLoop());
+        ThreadLocal<Context> workerContexts = ThreadLocal.withInitial(context::fork);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * QUEUE_SIZE_PER_WORKER), new LoadRunner.VirtualUserThreadFactory("worker-"));
+        executor.prestartAllCoreThreads();
+
+        long start = System.nanoTime();
+        try {
+            long offset;
+            while ((offset = schedule.nextArrivalNanos()) >= 0) {
+                long intendedStart = start + offset;
+                sleepUntil(intendedStart);
+                try {
+                    executor.execute(() -> invoke(workerContexts.get(), intendedStart, invocation, recorder));
+                } catch (RejectedExecutionException e) {
+                    recorder.dropped();
+                }
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for {} outstanding invocations", executor.getQueue().size() + executor.getActiveCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return recorder.toResult(workers, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void invoke(Context context, long intendedStart, Invocation invocation, LoadRecorder recorder) {
+        long start = System.nanoTime();
+        try {
+            invocation.invoke(context);
+            recorder.success();
+        } catch (ApiException | RuntimeException e) {
+            LOGGER.debug("Invocation failed", e);
+            recorder.failure(e);
+        }
+        recorder.latency(intendedStart, start, System.nanoTime());
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Processes the items of a {@link WorkStealingScheduler} with one thread per worker.
+ */
+public class ParallelRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRunner.class);
+
+    /**
+     * Runs the workers and blocks until all items are processed.
+     *
+     * @param scheduler Scheduler providing the items.
+     * @param task      Processes one item, must be thread-safe.
+     * @param <T>       Type of the items.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public <T> void run(WorkStealingScheduler<T> scheduler, Consumer<T> task) throws InterruptedException {
+        int workers = scheduler.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new LoadRunner.VirtualUserThreadFactory("worker-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                int worker = i;
+                futures.add(executor.submit(() -> runWorker(worker, scheduler, task)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Worker died", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> void runWorker(int worker, WorkStealingScheduler<T> scheduler, Consumer<T> task) {
+        T item;
+        while (!Thread.currentThread().isInterrupted() && (item = scheduler.next(worker)) != null) {
+            task.accept(item);
+        }
+    }
+}
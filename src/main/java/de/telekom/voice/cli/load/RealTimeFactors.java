@@ -0,0 +1,227 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import org.HdrHistogram.Histogram;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Real-time factors of audio invocations, i.e. the latency divided by the duration of the audio, bucketed by the
+ * duration.
+ * <p>
+ * Additionally fits the latency as a linear function of the duration. The intercept is the fixed overhead of an
+ * invocation, the slope the part that grows with the length of the utterance.
+ */
+public class RealTimeFactors {
+    /**
+     * Upper bounds of the duration buckets, the last bucket is unbounded.
+     */
+    private static final long[] BUCKET_LIMITS_MILLIS = {1000, 2000, 5000, 10000, 30000};
+    private static final String[] BUCKET_NAMES = {"< 1 s", "1-2 s", "2-5 s", "5-10 s", "10-30 s", ">= 30 s"};
+
+    /**
+     * Factors are recorded in thousandths, up to a factor of 1000.
+     */
+    private static final long SCALE = 1000;
+    private static final long HIGHEST_TRACKABLE = 1000 * SCALE;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram[] buckets = new Histogram[BUCKET_NAMES.length];
+    private long count;
+    private double sumX;
+    private double sumY;
+    private double sumXX;
+    private double sumXY;
+    private double sumYY;
+
+    public RealTimeFactors() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Histogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+        }
+    }
+
+    /**
+     * @param audioMillis  Duration of the audio sent, invocations without audio are ignored.
+     * @param latencyNanos Time from the start of the request to the response.
+     */
+    public synchronized void record(long audioMillis, long latencyNanos) {
+        if (audioMillis <= 0) {
+            return;
+        }
+
+        double latencyMillis = latencyNanos / 1e6;
+        long factor = Math.round(latencyMillis / audioMillis * SCALE);
+        buckets[bucketOf(audioMillis)].recordValue(Math.min(factor, HIGHEST_TRACKABLE));
+
+        double x = audioMillis / 1000.0;
+        count++;
+        sumX += x;
+        sumY += latencyMillis;
+        sumXX += x * x;
+        sumXY += x * latencyMillis;
+        sumYY += latencyMillis * latencyMillis;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Snapshots of all buckets with at least one invocation, by ascending duration.
+     */
+    public synchronized List<Bucket> getBuckets() {
+        List<Bucket> result = new ArrayList<>();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i].getTotalCount() > 0) {
+                result.add(new Bucket(BUCKET_NAMES[i], buckets[i].copy()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Least-squares fit of the latency in milliseconds over the duration in seconds, or null if there are fewer
+     * than two distinct durations.
+     */
+    @Nullable
+    public synchronized Regression getRegression() {
+        double varianceX = count * sumXX - sumX * sumX;
+        if (count < 2 || varianceX <= 0) {
+            return null;
+        }
+
+        double slope = (count * sumXY - sumX * sumY) / varianceX;
+        double intercept = (sumY - slope * sumX) / count;
+        double varianceY = count * sumYY - sumY * sumY;
+        double covariance = count * sumXY - sumX * sumY;
+        double rSquared = varianceY <= 0 ? 1.0 : covariance * covariance / (varianceX * varianceY);
+        return new Regression(intercept, slope, rSquared, count);
+    }
+
+    public synchronized void reset() {
+        for (Histogram bucket : buckets) {
+            bucket.reset();
+        }
+        count = 0;
+        sumX = 0;
+        sumY = 0;
+        sumXX = 0;
+        sumXY = 0;
+        sumYY = 0;
+    }
+
+    /**
+     * @return Real-time factor of a single invocation.
+     */
+    public static double of(long audioMillis, long latencyNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos) / (audioMillis * 1000.0);
+    }
+
+    private static int bucketOf(long audioMillis) {
+        for (int i = 0; i < BUCKET_LIMITS_MILLIS.length; i++) {
+            if (audioMillis < BUCKET_LIMITS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS_MILLIS.length;
+    }
+
+    /**
+     * Real-time factors of the invocations with audio in a duration range.
+     */
+    public static final class Bucket {
+        private final String name;
+        private final Histogram factors;
+
+        private Bucket(String name, Histogram factors) {
+            this.name = name;
+            this.factors = factors;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return factors.getTotalCount();
+        }
+
+        public double getFactorAtPercentile(double percentile) {
+            return factors.getValueAtPercentile(percentile) / (double) SCALE;
+        }
+
+        public double getMaxFactor() {
+            return factors.getMaxValue() / (double) SCALE;
+        }
+    }
+
+    /**
+     * Latency = intercept + slope * duration.
+     */
+    public static final class Regression {
+        private final double interceptMillis;
+        private final double slopeMillisPerSecond;
+        private final double rSquared;
+        private final long count;
+
+        private Regression(double interceptMillis, double slopeMillisPerSecond, double rSquared, long count) {
+            this.interceptMillis = interceptMillis;
+            this.slopeMillisPerSecond = slopeMillisPerSecond;
+            this.rSquared = rSquared;
+            this.count = count;
+        }
+
+        /**
+         * @return Fixed overhead per invocation in milliseconds.
+         */
+        public double getInterceptMillis() {
+            return interceptMillis;
+        }
+
+        /**
+         * @return Additional latency in milliseconds per second of audio.
+         */
+        public double getSlopeMillisPerSecond() {
+            return slopeMillisPerSecond;
+        }
+
+        /**
+         * @return Coefficient of determination, the share of the latency variance explained by the duration.
+         */
+        public double getRSquared() {
+            return rSquared;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import java.time.Duration;
+
+/**
+ * A stage of an open-loop load run: the arrival rate changes linearly from the target of the previous stage to the
+ * target of this stage over the duration of this stage.
+ * <p>
+ * A plateau is a stage with the same target as its predecessor, a stage with zero duration jumps to the target.
+ */
+public final class Stage {
+    private final Duration duration;
+    private final double targetRate;
+
+    /**
+     * @param duration   Duration of the stage.
+     * @param targetRate Arrival rate in requests per second at the end of the stage.
+     */
+    public Stage(Duration duration, double targetRate) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative");
+        }
+        if (targetRate < 0) {
+            throw new IllegalArgumentException("Target rate must not be negative");
+        }
+        this.duration = duration;
+        this.targetRate = targetRate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    @Override
+    public String toString() {
+        return duration.toMillis() + "ms to " + targetRate + "/s";
+    }
+}
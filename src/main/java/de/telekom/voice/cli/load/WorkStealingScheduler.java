@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * Voice CLI
+ * %%
+ * Copyright (C) 2020 Deutsche Telekom AG
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package de.telekom.voice.cli.load;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Distributes weighted work items over a fixed number of workers.
+ * <p>
+ * The items are assigned up front with the longest-processing-time-first rule: sorted by descending weight, each item
+ * goes to the worker with the least total weight so far. Every worker processes its own queue from the heaviest item
+ * down. A worker whose queue ran empty steals the lightest item from the worker with the most remaining weight, which
+ * evens out deviations of the actual processing times from the weights.
+ * <p>
+ * Items take much longer to process than to schedule, so a single lock guards all queues.
+ *
+ * @param <T> Type of the work items.
+ */
+public class WorkStealingScheduler<T> {
+    private final List<Deque<T>> queues;
+    private final long[] remainingWeights;
+    private final ToLongFunction<T> weight;
+    private int steals;
+
+    /**
+     * @param items   Work items.
+     * @param weight  Expected processing time of an item, in any unit.
+     * @param workers Number of workers.
+     */
+    public WorkStealingScheduler(Collection<T> items, ToLongFunction<T> weight, int workers) {
+        this.weight = weight;
+        this.queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        this.remainingWeights = new long[workers];
+
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingLong(weight).reversed());
+        for (T item : sorted) {
+            int worker = 0;
+            for (int i = 1; i < workers; i++) {
+                if (remainingWeights[i] < remainingWeights[worker]) {
+                    worker = i;
+                }
+            }
+            queues.get(worker).addLast(item);
+            remainingWeights[worker] += weight.applyAsLong(item);
+        }
+    }
+
+    /**
+     * @param worker Index of the worker, from 0 to the number of workers - 1.
+     * @return Next item for the worker, or null if all items are taken.
+     */
+    @Nullable
+    public synchronized T next(int worker) {
+        T item = queues.get(worker).pollFirst();
+        if (item != null) {
+            remainingWeights[worker] -= weight.applyAsLong(item);
+            return item;
+        }
+
+        int victim = -1;
+        for (int i = 0; i < queues.size(); i++) {
+            if (!queues.get(i).isEmpty() && (victim == -1 || remainingWeights[i] > remainingWeights[victim])) {
+                victim = i;
+            }
+        }
+        if (victim == -1) {
+            return null;
+        }
+
+        item = queues.get(victim).pollLast();
+        remainingWeights[victim] -= weight.applyAsLong(item);
+        steals++;
+        return item;
+    }
+
+    public int getWorkers() {
+        return queues.size();
+    }
+
+    /**
+     * @return Number of items taken from the queue of another worker so far.
+     */
+    public synchronized int getSteals() {
+        return steals;
+    }
+}